@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.AsyncManager;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventReplay;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SubscriberMetrics;
+import io.reactivex.Observable;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans out the chaincode events of one chaincode, read from a single stream, to all subscriptions of an adapter. When
+ * configured with a buffer, it also keeps the most recent events, so that late subscribers can replay them and queries
+ * can be answered from memory. A hub without a buffer stops ingesting as soon as its last subscriber leaves. Events are
+ * handed to each subscription through its own {@link EventSubscriber} queue, so publishing never waits for subscribers.
+ */
+@Log4j2
+class ChaincodeEventHub {
+    private static final long MIN_WATCHDOG_INTERVAL_MILLIS = 10;
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fabric-event-subscriber-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    @Getter
+    private final String chaincode;
+    @Getter
+    private final RecentEventBuffer buffer;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final List<EventSubscriber> eventSubscribers = new ArrayList<>();
+    private final Runnable onIdle;
+    private volatile ExecutorService executorService;
+    private final ExecutorService dispatchExecutorService = AsyncManager.createExecutorService();
+    private final ScheduledFuture<?> watchdog;
+    @Getter
+    private final AtomicBoolean closed = new AtomicBoolean();
+    @Getter
+    private final AtomicReference<CloseableIterator<?>> currentIterator = new AtomicReference<>();
+    private int subscribers;
+    private long published;
+    private long nextSubscriberId;
+    private Throwable failure;
+    private boolean completed;
+
+    /**
+     * @param chaincode          the chaincode whose events are fanned out.
+     * @param buffer             the buffer of recent events, or null to not buffer events.
+     * @param slowConsumerPolicy how subscribers that do not keep up are handled.
+     * @param onIdle             called when the last subscriber of a hub without a buffer leaves.
+     */
+    ChaincodeEventHub(String chaincode, RecentEventBuffer buffer, SlowConsumerPolicy slowConsumerPolicy, Runnable onIdle) {
+        this.chaincode = chaincode;
+        this.buffer = buffer;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.onIdle = onIdle;
+
+        if (slowConsumerPolicy.getMaxLagMillis() > 0) {
+            // detects subscribers that are stuck with an event while no new events are published.
+            long interval = Math.max(MIN_WATCHDOG_INTERVAL_MILLIS, slowConsumerPolicy.getMaxLagMillis() / 2);
+            this.watchdog = WATCHDOG.scheduleWithFixedDelay(this::checkSubscribers, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.watchdog = null;
+        }
+    }
+
+    /**
+     * Runs the ingestion of events on a thread owned by the hub. Not needed if the events are published by a
+     * {@link ChannelBlockIngestion}.
+     *
+     * @param ingestion reads the events and passes them to {@link #publish(ChaincodeEvent)}.
+     */
+    void start(Runnable ingestion) {
+        executorService = AsyncManager.createExecutorService();
+        executorService.execute(ingestion);
+    }
+
+    synchronized void publish(ChaincodeEvent event) {
+        if (buffer != null) {
+            buffer.add(event);
+        }
+
+        long position = published++;
+
+        for (Iterator<EventSubscriber> iterator = eventSubscribers.iterator(); iterator.hasNext(); ) {
+            if (!iterator.next().enqueue(event, position)) {
+                // a disconnected subscriber no longer receives events.
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void checkSubscribers() {
+        eventSubscribers.removeIf(subscriber -> !subscriber.checkSlow());
+    }
+
+    /**
+     * Terminates all current and future subscriptions with an error once their queued events are delivered.
+     */
+    synchronized void fail(Throwable error) {
+        failure = error;
+        eventSubscribers.forEach(subscriber -> subscriber.fail(error));
+    }
+
+    /**
+     * Completes all current and future subscriptions once their queued events are delivered, e.g., when the event
+     * stream ended.
+     */
+    synchronized void complete() {
+        completed = true;
+        eventSubscribers.forEach(EventSubscriber::complete);
+    }
+
+    synchronized List<SubscriberMetrics> getSubscriberMetrics() {
+        return eventSubscribers.stream().map(EventSubscriber::getMetrics).toList();
+    }
+
+    /**
+     * Observes the events of the chaincode, optionally starting with a replay of buffered events. The replay and the
+     * switch to live events happen atomically, so no event is missed or delivered twice.
+     *
+     * @param replay the replay request, or null to only observe live events.
+     * @param name   the name of the subscription used in logs and metrics.
+     * @return the events.
+     */
+    Observable<ChaincodeEvent> observe(EventReplay replay, String name) {
+        return Observable.<ChaincodeEvent>create(emitter -> {
+            synchronized (this) {
+                subscribers++;
+                EventSubscriber subscriber = new EventSubscriber(name + "#" + nextSubscriberId++, emitter,
+                        slowConsumerPolicy, buffer, this, dispatchExecutorService);
+
+                if (failure != null) {
+                    subscriber.fail(failure);
+                    return;
+                }
+
+                if (completed) {
+                    subscriber.complete();
+                    return;
+                }
+
+                if (replay != null && buffer != null) {
+                    // the replayed events are the most recent ones, which directly precede the next published event.
+                    List<ChaincodeEvent> replayed = buffer.select(replay);
+                    subscriber.replay(replayed, published - replayed.size());
+                }
+
+                eventSubscribers.add(subscriber);
+                emitter.setCancellable(() -> removeSubscriber(subscriber));
+            }
+        }).doFinally(this::unsubscribed);
+    }
+
+    private synchronized void removeSubscriber(EventSubscriber subscriber) {
+        eventSubscribers.remove(subscriber);
+    }
+
+    synchronized boolean isIdle() {
+        return subscribers == 0 && buffer == null;
+    }
+
+    void close() {
+        closed.set(true);
+
+        if (watchdog != null) {
+            watchdog.cancel(false);
+        }
+
+        CloseableIterator<?> iterator = currentIterator.get();
+
+        if (iterator != null) {
+            iterator.close();
+        }
+
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+
+        // lets the subscribers drain their queues, so that a terminal event signaled before closing is delivered.
+        dispatchExecutorService.shutdown();
+    }
+
+    private void unsubscribed() {
+        boolean idle;
+
+        synchronized (this) {
+            idle = --subscribers == 0 && buffer == null;
+        }
+
+        if (idle) {
+            onIdle.run();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.AsyncManager;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.BlockEventParser;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RetryPolicy;
+import io.grpc.Status;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.GatewayRuntimeException;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.protos.common.Block;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Reads a single block event stream of a channel and dispatches the chaincode events it contains to the event hubs of
+ * the watched chaincodes, so that the cost per channel does not grow with the number of watched chaincodes.
+ */
+@Log4j2
+class ChannelBlockIngestion {
+    @Getter
+    private final String channel;
+    private final Network network;
+    private final RetryPolicy retryPolicy;
+    private final Map<String, ChaincodeEventHub> hubs = new ConcurrentHashMap<>();
+    private final ExecutorService executorService = AsyncManager.createExecutorService();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicReference<CloseableIterator<Block>> currentIterator = new AtomicReference<>();
+    /**
+     * The next block to be dispatched.
+     */
+    @Getter
+    private volatile long nextBlock;
+
+    ChannelBlockIngestion(String channel, Network network, long startBlock, RetryPolicy retryPolicy) {
+        this.channel = channel;
+        this.network = network;
+        this.nextBlock = startBlock;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Starts reading blocks on a thread owned by this ingestion.
+     *
+     * @param onTerminated called with the failure (or null) when the stream ends without being closed.
+     */
+    void start(Consumer<Throwable> onTerminated) {
+        executorService.execute(() -> {
+            try {
+                run();
+
+                if (!closed.get()) {
+                    onTerminated.accept(null);
+                }
+            } catch (RuntimeException e) {
+                log.error("The block event stream of channel {} failed.", channel, e);
+                onTerminated.accept(e);
+            }
+        });
+    }
+
+    void addHub(ChaincodeEventHub hub) {
+        hubs.put(hub.getChaincode(), hub);
+    }
+
+    void removeHub(ChaincodeEventHub hub) {
+        hubs.remove(hub.getChaincode(), hub);
+    }
+
+    boolean isEmpty() {
+        return hubs.isEmpty();
+    }
+
+    Iterable<ChaincodeEventHub> getHubs() {
+        return hubs.values();
+    }
+
+    void close() {
+        closed.set(true);
+        CloseableIterator<Block> iterator = currentIterator.get();
+
+        if (iterator != null) {
+            iterator.close();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private void run() {
+        int failedAttempts = 0;
+
+        while (!closed.get()) {
+            try {
+                CloseableIterator<Block> blockIter = network.newBlockEventsRequest()
+                        .startBlock(nextBlock)
+                        .build()
+                        .getEvents();
+                currentIterator.set(blockIter);
+
+                if (closed.get()) {
+                    blockIter.close();
+                    return;
+                }
+
+                while (blockIter.hasNext()) {
+                    Block block = blockIter.next();
+                    failedAttempts = 0;
+                    dispatch(block);
+                }
+
+                return;
+            } catch (GatewayRuntimeException e) {
+                if (closed.get() || e.getStatus().getCode() == Status.Code.CANCELLED) {
+                    return;
+                }
+
+                if (!RetryPolicy.isTransient(e) || ++failedAttempts >= retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+
+                long backoff = retryPolicy.getBackoffMillis(failedAttempts);
+                log.warn("The block event stream of channel {} failed. Reconnecting from block {} in {} ms...", channel, nextBlock, backoff, e);
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(Block block) {
+        if (!hubs.isEmpty()) {
+            for (ChaincodeEvent event : BlockEventParser.getChaincodeEvents(block, hubs.keySet())) {
+                ChaincodeEventHub hub = hubs.get(event.getChaincodeName());
+
+                if (hub != null) {
+                    hub.publish(event);
+                }
+            }
+        }
+
+        // blocks are dispatched as a whole, so a reconnect resumes with the next one.
+        nextBlock = block.getHeader().getNumber() + 1;
+    }
+}
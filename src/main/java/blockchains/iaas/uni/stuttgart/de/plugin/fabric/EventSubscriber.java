@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerAction;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SubscriberMetrics;
+import io.reactivex.ObservableEmitter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the events of a hub to one subscription through its own queue, drained on a dispatch thread, so that a slow
+ * subscription stalls neither the ingestion of events nor the other subscriptions. A subscription whose queue grows
+ * beyond the thresholds of the {@link SlowConsumerPolicy}, or that is busy with a single event for longer than the lag
+ * threshold, is considered slow and handled according to the policy.
+ */
+@Log4j2
+class EventSubscriber {
+    private static final int CATCH_UP_PAGE_SIZE = 256;
+    @Getter
+    private final String name;
+    private final ObservableEmitter<ChaincodeEvent> emitter;
+    private final SlowConsumerPolicy policy;
+    private final RecentEventBuffer buffer;
+    private final Object hubLock;
+    private final Executor executor;
+    private final AtomicInteger workInProgress = new AtomicInteger();
+    private final Deque<QueuedEvent> queue = new ArrayDeque<>();
+    private boolean catchingUp;
+    private long catchUpPosition;
+    private boolean disconnected;
+    private Throwable failure;
+    private boolean completed;
+    private boolean slow;
+    private long delivered;
+    private long dropped;
+    private long catchUps;
+    private long maxDeliveryLagMillis;
+    /**
+     * When the subscriber started handling the event it is busy with, or zero if it is not busy.
+     */
+    private long deliveringSinceNanos;
+
+    /**
+     * @param name     the name of the subscription used in logs and metrics.
+     * @param emitter  the emitter of the subscription.
+     * @param policy   the slow consumer policy.
+     * @param buffer   the event buffer of the hub used to catch up, or null.
+     * @param hubLock  the lock under which the hub publishes events.
+     * @param executor the executor on which the queue is drained.
+     */
+    EventSubscriber(String name, ObservableEmitter<ChaincodeEvent> emitter, SlowConsumerPolicy policy,
+                    RecentEventBuffer buffer, Object hubLock, Executor executor) {
+        this.name = name;
+        this.emitter = emitter;
+        this.policy = policy;
+        this.buffer = buffer;
+        this.hubLock = hubLock;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues an event without blocking. Called by the hub while holding its lock.
+     *
+     * @param event    the event.
+     * @param position the position of the event in the sequence of events published by the hub.
+     * @return false if the subscriber is disconnected, so that the hub can drop it.
+     */
+    boolean enqueue(ChaincodeEvent event, long position) {
+        boolean connected;
+
+        synchronized (this) {
+            if (disconnected || failure != null || completed || catchingUp) {
+                // a subscriber that catches up re-reads the event from the buffer.
+                return !disconnected;
+            }
+
+            queue.addLast(new QueuedEvent(event, position, System.nanoTime()));
+
+            if (isOverThreshold()) {
+                onSlow();
+            }
+
+            connected = !disconnected;
+        }
+
+        schedule();
+
+        return connected;
+    }
+
+    /**
+     * Applies the slow consumer policy if the subscriber is beyond the thresholds, even if no events are published, e.g.,
+     * because it is stuck with an event. Called periodically by the hub while holding its lock.
+     *
+     * @return false if the subscriber is disconnected, so that the hub can drop it.
+     */
+    synchronized boolean checkSlow() {
+        if (!disconnected && failure == null && !completed && !catchingUp && isOverThreshold()) {
+            onSlow();
+        }
+
+        return !disconnected;
+    }
+
+    /**
+     * Queues replayed events. They do not count towards the slow consumer thresholds, since the subscriber requested
+     * them all at once.
+     *
+     * @param events        the events.
+     * @param firstPosition the position of the first event.
+     */
+    void replay(List<ChaincodeEvent> events, long firstPosition) {
+        synchronized (this) {
+            long position = firstPosition;
+
+            for (ChaincodeEvent event : events) {
+                queue.addLast(new QueuedEvent(event, position++, System.nanoTime()));
+            }
+        }
+
+        schedule();
+    }
+
+    /**
+     * Terminates the subscription with an error once the queued events are delivered.
+     */
+    void fail(Throwable error) {
+        synchronized (this) {
+            failure = error;
+        }
+
+        schedule();
+    }
+
+    /**
+     * Completes the subscription once the queued events are delivered.
+     */
+    void complete() {
+        synchronized (this) {
+            completed = true;
+        }
+
+        schedule();
+    }
+
+    synchronized SubscriberMetrics getMetrics() {
+        return SubscriberMetrics
+                .builder()
+                .name(name)
+                .queueDepth(queue.size())
+                .delivered(delivered)
+                .dropped(dropped)
+                .catchUps(catchUps)
+                .maxDeliveryLagMillis(maxDeliveryLagMillis)
+                .slow(slow)
+                .disconnected(disconnected)
+                .build();
+    }
+
+    private boolean isOverThreshold() {
+        if (policy.getMaxQueueDepth() > 0 && queue.size() > policy.getMaxQueueDepth()) {
+            return true;
+        }
+
+        return policy.getMaxLagMillis() > 0 && getLagMillis() > policy.getMaxLagMillis();
+    }
+
+    /**
+     * @return how long the oldest queued event, or the event the subscriber is busy with, has been waiting.
+     */
+    private long getLagMillis() {
+        QueuedEvent oldest = queue.peekFirst();
+        long oldestNanos = oldest != null ? oldest.getEnqueuedAtNanos() : 0;
+
+        if (deliveringSinceNanos != 0 && (oldestNanos == 0 || deliveringSinceNanos < oldestNanos)) {
+            oldestNanos = deliveringSinceNanos;
+        }
+
+        return oldestNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestNanos);
+    }
+
+    private void onSlow() {
+        if (!slow) {
+            slow = true;
+            log.warn("Event subscription {} is slow (queued events: {}, lag: {} ms). Applying {}...", name, queue.size(),
+                    getLagMillis(), policy.getAction());
+        }
+
+        SlowConsumerAction action = policy.getAction();
+
+        if (action == SlowConsumerAction.CATCH_UP && buffer == null) {
+            action = SlowConsumerAction.SHED;
+        }
+
+        switch (action) {
+            case SHED -> {
+                while (queue.size() > 1 && isOverThreshold()) {
+                    queue.pollFirst();
+                    dropped++;
+                }
+            }
+            case DISCONNECT -> {
+                // takes effect right away, even while the subscriber is busy: the hub drops it and the queue is
+                // released. The error is delivered once the subscriber returns.
+                disconnected = true;
+                queue.clear();
+            }
+            case CATCH_UP -> {
+                if (queue.isEmpty()) {
+                    // the subscriber is busy with an event, but there is nothing to catch up with yet.
+                    return;
+                }
+
+                catchingUp = true;
+                catchUpPosition = queue.peekFirst().getPosition();
+                catchUps++;
+                queue.clear();
+            }
+        }
+    }
+
+    private void schedule() {
+        if (workInProgress.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+
+        do {
+            while (!emitter.isDisposed()) {
+                QueuedEvent next = null;
+                Throwable terminal = null;
+                boolean complete = false;
+                boolean caughtUp;
+
+                synchronized (this) {
+                    caughtUp = !catchingUp;
+
+                    if (disconnected) {
+                        terminal = new IllegalStateException(String.format(
+                                "Event subscription %s was disconnected for not keeping up with the events.", name));
+                    } else if (caughtUp) {
+                        next = queue.pollFirst();
+
+                        if (next == null) {
+                            slow = false;
+                            terminal = failure;
+                            complete = failure == null && completed;
+                        }
+                    }
+                }
+
+                // the emitter is not called while holding the lock, since its handlers may lock the hub.
+                if (terminal != null) {
+                    emitter.tryOnError(terminal);
+                    return;
+                }
+
+                if (complete) {
+                    emitter.onComplete();
+                    return;
+                }
+
+                if (next != null) {
+                    delivering();
+                    emitter.onNext(next.getEvent());
+                    delivered(next.getEnqueuedAtNanos());
+                } else if (!caughtUp) {
+                    if (!catchUp()) {
+                        break;
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            missed = workInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Delivers the next page of buffered events to a subscriber that catches up.
+     *
+     * @return false if the subscriber is disconnected.
+     */
+    private boolean catchUp() {
+        long position;
+        long oldest;
+        List<ChaincodeEvent> page;
+
+        synchronized (this) {
+            position = catchUpPosition;
+        }
+
+        synchronized (buffer) {
+            oldest = buffer.getOldestPosition();
+            page = buffer.getFrom(position, CATCH_UP_PAGE_SIZE);
+        }
+
+        if (page.isEmpty()) {
+            // switch to the live events under the lock of the hub, so that no event is published in between.
+            synchronized (hubLock) {
+                synchronized (this) {
+                    if (buffer.getAddedCount() <= catchUpPosition) {
+                        catchingUp = false;
+                        log.info("Event subscription {} caught up with the live events.", name);
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        synchronized (this) {
+            if (oldest > position) {
+                dropped += oldest - position;
+                position = oldest;
+            }
+        }
+
+        for (ChaincodeEvent event : page) {
+            if (emitter.isDisposed()) {
+                return false;
+            }
+
+            delivering();
+            emitter.onNext(event);
+            position++;
+
+            synchronized (this) {
+                delivered++;
+                deliveringSinceNanos = 0;
+            }
+        }
+
+        synchronized (this) {
+            catchUpPosition = position;
+        }
+
+        return true;
+    }
+
+    private synchronized void delivering() {
+        deliveringSinceNanos = System.nanoTime();
+    }
+
+    private synchronized void delivered(long enqueuedAtNanos) {
+        deliveringSinceNanos = 0;
+        delivered++;
+        maxDeliveryLagMillis = Math.max(maxDeliveryLagMillis,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueuedAtNanos));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class QueuedEvent {
+        private final ChaincodeEvent event;
+        private final long position;
+        private final long enqueuedAtNanos;
+    }
+}
@@ -18,16 +18,32 @@ import blockchains.iaas.uni.stuttgart.de.api.model.*;
 import blockchains.iaas.uni.stuttgart.de.api.utils.BooleanExpressionEvaluator;
 import blockchains.iaas.uni.stuttgart.de.api.utils.SmartContractPathParser;
 import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.AsyncManager;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.CircuitBreaker;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.ConnectivityMonitor;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventIngestionMode;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventReplay;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.GrpcTransport;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.GrpcTransportSettings;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HedgedEvaluator;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HedgingMetrics;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HedgingPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HotPathLog;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.ParameterSchema;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RetryPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SubscriberMetrics;
 import com.google.gson.*;
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Status;
 import io.grpc.*;
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
-import io.reactivex.subjects.PublishSubject;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.hyperledger.fabric.client.*;
 import org.hyperledger.fabric.client.identity.*;
@@ -35,6 +51,7 @@ import org.hyperledger.fabric.protos.common.BlockchainInfo;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -46,11 +63,24 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,6 +92,16 @@ public class FabricAdapter implements BlockchainAdapter {
     private static final int SUBMISSION_TIMEOUT_SECONDS = 5;
     private static final int COMMITMENT_TIMEOUT_SECONDS = 60;
     private static final int EVENT_QUERY_TIMEOUT_SECONDS = 5;
+    private static final long TEST_CONNECTION_TIMEOUT_MILLIS = 1000;
+    private static final int MAX_PIPELINED_RM_INVOCATIONS = 32;
+    private static final long DEFAULT_RM_BATCH_TIMEOUT_MILLIS = 60_000;
+    private static final String RM_PREPARE = "prepare";
+    private static final String RM_COMMIT = "commit";
+    private static final String RM_ABORT = "abort";
+    private static final String RM_BATCH_SUFFIX = "Batch";
+    private static final String RM_VOTED_EVENT = "Voted";
+    private static final String RM_ABORTED_EVENT = "TxAborted";
+    private final Path cryptoPath;
     private final Path certDirPath;
     private final Path keyDirPath;
     private final Path tlsCertPath;
@@ -70,17 +110,113 @@ public class FabricAdapter implements BlockchainAdapter {
     private final String overrideAuth;
     private final String resourceManagerSmartContractAddress;
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    /**
+     * Whether the resource manager smart contract offers the functions prepareBatch, commitBatch and abortBatch, which
+     * accept a JSON array of transaction ids. If not, batched operations are pipelined as concurrent single invocations.
+     */
+    @Setter
+    @Getter
+    private boolean resourceManagerBatchSupported;
+    @Setter
+    @Getter
+    private RetryPolicy retryPolicy = RetryPolicy.builder().build();
+    /**
+     * The breaker of the peer, shared with the other adapters that talk to the same peer with the same settings.
+     */
+    @Getter
+    private volatile CircuitBreaker circuitBreaker;
+    private int circuitBreakerFailureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+    private long circuitBreakerOpenMillis = CircuitBreaker.DEFAULT_OPEN_MILLIS;
+    /**
+     * The tuning options of the gRPC channels. Only channels opened after a change are affected.
+     */
+    @Setter
+    @Getter
+    private GrpcTransportSettings transportSettings = GrpcTransportSettings.defaults();
+    private ManagedChannel channel;
+    private Gateway gateway;
+    /**
+     * The interval of the round-trip pings of the connectivity monitors, in milliseconds. Zero disables the pings. The
+     * pings keep the channels active, so an interval shorter than the idle timeout disables the idle timeout.
+     */
+    @Setter
+    @Getter
+    private long connectivityPingIntervalMillis;
+    private volatile ConnectivityMonitor connectivityMonitor;
+    private final List<ConnectivityMonitor> hedgeConnectivityMonitors = new ArrayList<>();
+    /**
+     * The number of recent chaincode events kept in memory per chaincode for replays and queries. Zero disables the
+     * buffer.
+     */
+    @Setter
+    @Getter
+    private int eventBufferCapacity;
+    private final Map<String, ChaincodeEventHub> eventHubs = new HashMap<>();
+    /**
+     * Whether chaincode events are read with one stream per chaincode or with one block stream per channel.
+     */
+    @Setter
+    @Getter
+    private EventIngestionMode eventIngestionMode = EventIngestionMode.CHAINCODE;
+    /**
+     * How event subscriptions that do not keep up with their events are handled. Only hubs created after a change are
+     * affected.
+     */
+    @Setter
+    @Getter
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.defaults();
+    /**
+     * Bounds the logging on the invocation and event paths of this adapter.
+     */
+    @Setter
+    @Getter
+    private volatile HotPathLog hotPathLog = HotPathLog.defaults();
+    /**
+     * The block streams of the channels in {@link EventIngestionMode#CHANNEL}, guarded by {@link #eventHubs}.
+     */
+    private final Map<String, ChannelBlockIngestion> channelIngestions = new HashMap<>();
+    /**
+     * Replaced by {@link #enableHedging}, so it is read once per invocation.
+     */
+    private volatile HedgedEvaluator hedgedEvaluator;
+    private List<String> hedgePeers = Collections.emptyList();
+    private final List<ManagedChannel> hedgeChannels = new ArrayList<>();
+    private final List<Gateway> hedgeGateways = new ArrayList<>();
+    /**
+     * The breakers of the hedge peers, in the order of {@link #hedgeGateways}.
+     */
+    private final List<CircuitBreaker> hedgeBreakers = new ArrayList<>();
+    private final AtomicInteger nextHedgeGateway = new AtomicInteger();
+    @Getter
+    private final String userName;
+    /**
+     * The adapter whose gRPC channel is shared, or null if this adapter owns its channel.
+     */
+    private FabricAdapter parent;
+    private final Map<String, FabricAdapter> identityAdapters = new HashMap<>();
+    /**
+     * Runs the resource manager invocations of all batches. It is bounded, so that large batches are pipelined.
+     */
+    private ExecutorService resourceManagerInvocationExecutor;
+    /**
+     * Runs the vote correlation of the active batches, which blocks one thread per batch. It is separate from the
+     * invocations, so that correlations can never starve the invocations they wait for.
+     */
+    private ExecutorService resourceManagerEventExecutor;
 
     public FabricAdapter(final String userName, final String cryptoPath,
                          final String mspId,
                          final String peerEndpoint,
                          final String overrideAuth,
                          final String resourceManagerSmartContractAddress) {
+        this.userName = userName;
         this.resourceManagerSmartContractAddress = resourceManagerSmartContractAddress;
         this.mspId = mspId;
         this.peerEndpoint = peerEndpoint;
         this.overrideAuth = overrideAuth;
         final Path CRYPTO_PATH = Paths.get(cryptoPath);
+        this.cryptoPath = CRYPTO_PATH;
+        this.circuitBreaker = CircuitBreaker.forPeer(peerEndpoint);
         String peerAddress = overrideAuth != null && !overrideAuth.isEmpty() ? overrideAuth : peerEndpoint;
         String orgName = Stream.of(peerAddress.split("\\.")).skip(1).collect(Collectors.joining("."));
         String userFolder = userName + "@" + orgName;
@@ -89,6 +225,43 @@ public class FabricAdapter implements BlockchainAdapter {
         this.tlsCertPath = CRYPTO_PATH.resolve("peers").resolve(peerAddress).resolve("tls").resolve("ca.crt");
     }
 
+    private FabricAdapter(FabricAdapter parent, String userName) {
+        this(userName, parent.cryptoPath.toString(), parent.mspId, parent.peerEndpoint, parent.overrideAuth,
+                parent.resourceManagerSmartContractAddress);
+        this.parent = parent;
+        this.resourceManagerBatchSupported = parent.resourceManagerBatchSupported;
+        this.retryPolicy = parent.retryPolicy;
+        this.circuitBreaker = parent.circuitBreaker;
+        this.circuitBreakerFailureThreshold = parent.circuitBreakerFailureThreshold;
+        this.circuitBreakerOpenMillis = parent.circuitBreakerOpenMillis;
+        this.transportSettings = parent.transportSettings;
+        this.eventBufferCapacity = parent.eventBufferCapacity;
+        this.eventIngestionMode = parent.eventIngestionMode;
+        this.connectivityPingIntervalMillis = parent.connectivityPingIntervalMillis;
+        this.slowConsumerPolicy = parent.slowConsumerPolicy;
+        this.hotPathLog = parent.hotPathLog;
+    }
+
+    /**
+     * Gets the adapter that signs with another user identity of the same organization. The adapters of all identities
+     * share the gRPC channel of this adapter, while each of them has its own gateway, signer, and event streams.
+     * Hedging is only available to the identity of this adapter.
+     *
+     * @param userName the name of the user whose crypto material is found in the users folder of the crypto path.
+     * @return the adapter of the identity.
+     */
+    public synchronized FabricAdapter forIdentity(String userName) {
+        if (this.parent != null) {
+            return this.parent.forIdentity(userName);
+        }
+
+        if (userName == null || userName.equals(this.userName)) {
+            return this;
+        }
+
+        return this.identityAdapters.computeIfAbsent(userName, name -> new FabricAdapter(this, name));
+    }
+
 
     static Path getFirstFilePath(Path dirPath) throws IOException {
         try (var keyFiles = Files.list(dirPath)) {
@@ -112,13 +285,51 @@ public class FabricAdapter implements BlockchainAdapter {
         return builder.connect();
     }
 
+    /**
+     * Gets the gateway of this adapter, connecting it on first use. The gateway and its gRPC channel are shared by all
+     * invocations, so the identity, the signer and the TLS session are only set up once.
+     */
+    protected synchronized Gateway getGateway() throws IOException, CertificateException, InvalidKeyException {
+        if (this.gateway == null && this.parent != null) {
+            // the identities of an adapter are multiplexed over its channel.
+            this.gateway = createGateway(this.parent.getSharedChannel());
+        }
+
+        if (this.gateway == null) {
+            ManagedChannel newChannel = newGrpcConnection();
+
+            try {
+                this.gateway = createGateway(newChannel);
+                this.channel = newChannel;
+                this.connectivityMonitor = new ConnectivityMonitor(newChannel, this.connectivityPingIntervalMillis);
+            } catch (IOException | CertificateException | InvalidKeyException | RuntimeException e) {
+                newChannel.shutdownNow();
+                throw e;
+            }
+        }
+
+        return this.gateway;
+    }
+
+    private synchronized ManagedChannel getSharedChannel() throws IOException, CertificateException, InvalidKeyException {
+        getGateway();
+
+        return this.channel;
+    }
+
+    protected Network getNetwork(String channelName) throws IOException, CertificateException, InvalidKeyException {
+        return getGateway().getNetwork(channelName);
+    }
+
     protected ManagedChannel newGrpcConnection() throws IOException {
+        return newGrpcConnection(this.peerEndpoint, this.overrideAuth, this.tlsCertPath);
+    }
+
+    protected ManagedChannel newGrpcConnection(String endpoint, String authority, Path tlsCertPath) throws IOException {
         var credentials = TlsChannelCredentials.newBuilder()
-                .trustManager(this.tlsCertPath.toFile())
-                .build();
-        return Grpc.newChannelBuilder(this.peerEndpoint, credentials)
-                .overrideAuthority(this.overrideAuth)
+                .trustManager(tlsCertPath.toFile())
                 .build();
+        return GrpcTransport.newChannel(endpoint, authority, credentials, this.transportSettings);
     }
 
     protected X509Identity newIdentity() throws IOException, CertificateException {
@@ -173,64 +384,179 @@ public class FabricAdapter implements BlockchainAdapter {
 
         CompletableFuture<Transaction> result = new CompletableFuture<>();
         SmartContractPathElements path = this.parsePathElements(smartContractPath);
+        List<byte[]> arguments = new ArrayList<>(inputs.size());
+        Map<String, byte[]> transientData = new HashMap<>();
+        encodeInputs(inputs, arguments, transientData);
+
+        Contract contract = getContractForInvocation(path);
 
         try {
-            ManagedChannel channel = newGrpcConnection();
+            byte[] resultAsBytes = invoke(contract, path, functionIdentifier, arguments.toArray(byte[][]::new), transientData, sideEffects);
+            Transaction resultT = new Transaction();
 
-            try (Gateway gateway = createGateway(channel)) {
-                Network network = gateway.getNetwork(path.channel);
-                Contract contract = path.smartContract != null && !path.smartContract.isEmpty() ?
-                        network.getContract(path.chaincode, path.smartContract) :
-                        network.getContract(path.chaincode);
-                String[] params = inputs.stream().map(Parameter::getValue).toArray(String[]::new);
+            if (outputs.size() == 1) {
+                Parameter resultP = Parameter
+                        .builder()
+                        .name(outputs.get(0).getName())
+                        .type(outputs.get(0).getType())
+                        .value(decodeResultValue(resultAsBytes, ParameterSchema.of(outputs.get(0).getType())))
+                        .build();
+                resultT.setReturnValues(Collections.singletonList(resultP));
+                logInvocation(smartContractPath, functionIdentifier, resultP.getValue());
+            } else if (outputs.isEmpty()) {
+                logInvocation(smartContractPath, functionIdentifier, null);
+                resultT.setReturnValues(Collections.emptyList());
+            }
 
-                try {
-                    byte[] resultAsBytes;
+            resultT.setState(TransactionState.RETURN_VALUE);
+            result.complete(resultT);
+        } catch (BlockchainNodeUnreachableException e) {
+            log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
+            result.completeExceptionally(e);
+        } catch (Exception e) {
+            log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
+            // exceptions at this level are invocation exceptions. They should be sent asynchronously to the client app.
+            result.completeExceptionally(new InvokeSmartContractFunctionFailure(e.getMessage()));
+        }
 
-                    if (sideEffects) {
-                        resultAsBytes = contract.submitTransaction(functionIdentifier, params);
-                    } else {
-                        resultAsBytes = contract.evaluateTransaction(functionIdentifier, params);
-                    }
+        return result;
+    }
 
-                    Transaction resultT = new Transaction();
-
-                    if (outputs.size() == 1) {
-                        Parameter resultP = Parameter
-                                .builder()
-                                .name(outputs.get(0).getName())
-                                .type(outputs.get(0).getType())
-                                .value(new String(resultAsBytes, StandardCharsets.UTF_8))
-                                .build();
-                        resultT.setReturnValues(Collections.singletonList(resultP));
-                        log.info(resultP.getValue());
-                    } else if (outputs.isEmpty()) {
-                        log.info("Fabric transaction without a return value executed!");
-                        resultT.setReturnValues(Collections.emptyList());
-                    }
+    /**
+     * Invokes a smart contract function with raw binary arguments, e.g., for chaincodes that move large documents or
+     * blobs. Array-backed buffers that cover their whole backing array are passed to the gateway without copying, and
+     * the result is returned as a read-only view of the bytes received from the peer.
+     *
+     * @param smartContractPath  the path to the smart contract: channel/chaincode[/contract].
+     * @param functionIdentifier the name of the function.
+     * @param arguments          the function arguments.
+     * @param transientData      private inputs that are passed to the chaincode without being recorded on the ledger.
+     * @param sideEffects        whether to submit the transaction, or only to evaluate it.
+     * @return a future that completes with the returned bytes.
+     * @throws BalException if the network cannot be reached.
+     */
+    public CompletableFuture<ByteBuffer> invokeSmartContractBinary(String smartContractPath,
+                                                                   String functionIdentifier,
+                                                                   List<ByteBuffer> arguments,
+                                                                   Map<String, ByteBuffer> transientData,
+                                                                   boolean sideEffects) throws BalException {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        SmartContractPathElements path = this.parsePathElements(smartContractPath);
+        byte[][] args = arguments.stream().map(FabricAdapter::toBytes).toArray(byte[][]::new);
+        Map<String, byte[]> transientBytes = new HashMap<>();
 
-                    resultT.setState(TransactionState.RETURN_VALUE);
-                    result.complete(resultT);
-                } catch (Exception e) {
-                    log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
-                    // exceptions at this level are invocation exceptions. They should be sent asynchronously to the client app.
-                    result.completeExceptionally(new InvokeSmartContractFunctionFailure(e.getMessage()));
-                }
-            } catch (Exception e) {
-                log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
-                // this is a synchronous exception.
-                throw new BlockchainNodeUnreachableException(e.getMessage());
-            } finally {
-                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
-            }
-        } catch (IOException e) {
+        if (transientData != null) {
+            transientData.forEach((key, value) -> transientBytes.put(key, toBytes(value)));
+        }
+
+        Contract contract = getContractForInvocation(path);
+
+        try {
+            byte[] resultAsBytes = invoke(contract, path, functionIdentifier, args, transientBytes, sideEffects);
+            result.complete(ByteBuffer.wrap(resultAsBytes).asReadOnlyBuffer());
+        } catch (BlockchainNodeUnreachableException e) {
+            log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
+            result.completeExceptionally(e);
+        } catch (Exception e) {
+            log.error("Failed to invoke smart contract function {}/{}.", smartContractPath, functionIdentifier, e);
+            result.completeExceptionally(new InvokeSmartContractFunctionFailure(e.getMessage()));
+        }
+
+        return result;
+    }
+
+    private Contract getContractForInvocation(SmartContractPathElements path) throws BalException {
+        if (!this.circuitBreaker.isCallPermitted()) {
+            // fail fast while the peer is known to be unhealthy.
+            throw new BlockchainNodeUnreachableException(String.format("The circuit breaker of peer %s is open.", this.peerEndpoint));
+        }
+
+        try {
+            return getContract(getNetwork(path.channel), path);
+        } catch (IOException | CertificateException | InvalidKeyException e) {
             log.error("Failed to establish network connection.", e);
             throw new BlockchainNodeUnreachableException(e.getMessage());
-        } catch (InterruptedException e) {
-            log.warn("An error occurred while trying to close the network connection. Ignoring...", e);
         }
+    }
 
-        return result;
+    private byte[] invoke(Contract contract, SmartContractPathElements path, String functionIdentifier, byte[][] args,
+                          Map<String, byte[]> transientData, boolean sideEffects) throws Exception {
+        if (sideEffects) {
+            return submit(contract, functionIdentifier, transientData, args);
+        }
+
+        final HedgedEvaluator hedgedEvaluator = this.hedgedEvaluator;
+
+        if (hedgedEvaluator != null && transientData.isEmpty()) {
+            final CircuitBreaker breaker = this.circuitBreaker;
+            // each peer reports the outcome of its own call to its own breaker.
+            return this.retryPolicy.execute(() -> hedgedEvaluator.evaluate(
+                    () -> breaker.call(() -> contract.evaluateTransaction(functionIdentifier, args)),
+                    () -> getHedgeEvaluation(path, functionIdentifier, args),
+                    functionIdentifier));
+        }
+
+        return this.retryPolicy.execute(this.circuitBreaker, () -> contract.newProposal(functionIdentifier)
+                .addArguments(args)
+                .putAllTransient(transientData)
+                .build()
+                .evaluate());
+    }
+
+    /**
+     * Encodes the input parameters of an invocation according to their schemas.
+     *
+     * @param inputs        the input parameters.
+     * @param arguments     receives the function arguments, in the order of the inputs.
+     * @param transientData receives the transient inputs by parameter name.
+     * @throws ParameterException if a value is missing, or a binary value is not valid base64.
+     */
+    static void encodeInputs(List<Parameter> inputs, List<byte[]> arguments, Map<String, byte[]> transientData) throws ParameterException {
+        for (Parameter input : inputs) {
+            ParameterSchema schema = ParameterSchema.of(input.getType());
+            byte[] value = encodeParameterValue(input, schema);
+
+            if (schema.isTransientData()) {
+                transientData.put(input.getName(), value);
+            } else {
+                arguments.add(value);
+            }
+        }
+    }
+
+    /**
+     * @return the value of the output parameter: base64 for binary outputs, otherwise the result decoded as UTF-8.
+     */
+    static String decodeResultValue(byte[] result, ParameterSchema schema) {
+        return schema.isBinary() ? Base64.getEncoder().encodeToString(result) : new String(result, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeParameterValue(Parameter parameter, ParameterSchema schema) throws ParameterException {
+        if (parameter.getValue() == null) {
+            throw new ParameterException(String.format("The value of parameter %s is missing.", parameter.getName()));
+        }
+
+        if (!schema.isBinary()) {
+            return parameter.getValue().getBytes(StandardCharsets.UTF_8);
+        }
+
+        try {
+            return Base64.getDecoder().decode(parameter.getValue());
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException(String.format("The value of binary parameter %s is not valid base64.", parameter.getName()));
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 &&
+                buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+
+        return bytes;
     }
 
     @Override
@@ -240,70 +566,349 @@ public class FabricAdapter implements BlockchainAdapter {
             List<Parameter> outputParameters,
             double degreeOfConfidence,
             String filter) throws BalException {
+        return subscribeToEvent(smartContractAddress, eventIdentifier, outputParameters, degreeOfConfidence, filter, null);
+    }
+
+    /**
+     * Subscribes to a chaincode event, optionally replaying matching events that were received before the subscription
+     * (requires an event buffer, see {@link #setEventBufferCapacity(int)}).
+     *
+     * @param replay which buffered events to replay before the live ones, or null to not replay events.
+     * @see #subscribeToEvent(String, String, List, double, String)
+     */
+    public Observable<Occurrence> subscribeToEvent(
+            String smartContractAddress,
+            String eventIdentifier,
+            List<Parameter> outputParameters,
+            double degreeOfConfidence,
+            String filter,
+            EventReplay replay) throws BalException {
         SmartContractPathElements path = this.parsePathElements(smartContractAddress);
-        final PublishSubject<Occurrence> result = PublishSubject.create();
-        CloseableIterator<ChaincodeEvent> eventIter;
-        ExecutorService executorService = AsyncManager.createExecutorService();
-        Gateway gateway;
+        final ChaincodeEventHub hub;
 
         try {
-            ManagedChannel channel = newGrpcConnection();
+            hub = getEventHub(path);
+        } catch (Exception e) {
+            log.error("Failed to subscribe to event {}/{}.", smartContractAddress, eventIdentifier);
+            // this is a synchronous exception.
+            throw new BlockchainNodeUnreachableException(e.getMessage());
+        }
+
+        final HotPathLog hotPathLog = this.hotPathLog;
+
+        return hub.observe(replay, smartContractAddress + "/" + eventIdentifier).concatMapMaybe(event -> {
+
+            if (log.isDebugEnabled() && hotPathLog.permit(smartContractAddress + "/" + eventIdentifier) >= 0) {
+                log.debug("Received chaincode event: {}", () -> hotPathLog.describe(event));
+            }
 
             try {
-                gateway = createGateway(channel);
-                Network network = gateway.getNetwork(path.channel);
-                eventIter = network.getChaincodeEvents(path.chaincode);
-                executorService.execute(() -> {
-                    try {
-                        eventIter.forEachRemaining(event -> {
-
-                            log.debug("Received chaincode event: {}", event);
-
-                            try {
-                                Occurrence occurrence = this.handleEvent(event, eventIdentifier, outputParameters, filter);
-
-                                if (occurrence != null) {
-                                    result.onNext(occurrence);
-                                }
-                            } catch (InvalidScipParameterException e) {
-                                log.error("An error occurred while handling chaincode event: {}", event, e);
-                                result.onError(e);
-                            }
-                        });
-                    } catch (GatewayRuntimeException e) {
-                        if (e.getStatus().getCode() != Status.Code.CANCELLED) {
-                            throw e;
-                        }
-                    }
-                });
+                Occurrence occurrence = this.handleEvent(event, eventIdentifier, outputParameters, filter);
 
-            } catch (CertificateException | InvalidKeyException e) {
-                log.error("Failed to subscribe to event {}/{}.", smartContractAddress, eventIdentifier);
-                // this is a synchronous exception.
-                throw new BlockchainNodeUnreachableException(e.getMessage());
+                return occurrence != null ? Maybe.just(occurrence) : Maybe.<Occurrence>empty();
+            } catch (InvalidScipParameterException e) {
+                log.error("An error occurred while handling chaincode event: {}", hotPathLog.describe(event), e);
+                return Maybe.<Occurrence>error(e);
             }
+        });
+    }
 
-            return result.doFinally(() -> {
-                if (eventIter != null) {
-                    eventIter.close();
+    /**
+     * Logs the result of an invocation at a bounded rate per chaincode function, truncating the result.
+     */
+    private void logInvocation(String smartContractPath, String functionIdentifier, String result) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        final HotPathLog hotPathLog = this.hotPathLog;
+        long suppressed = hotPathLog.permit(smartContractPath + "/" + functionIdentifier);
+
+        if (suppressed < 0) {
+            return;
+        }
+
+        if (result == null) {
+            log.info("Fabric transaction {}/{} without a return value executed! ({} similar messages suppressed)",
+                    smartContractPath, functionIdentifier, suppressed);
+        } else {
+            log.info("Fabric transaction {}/{} returned: {} ({} similar messages suppressed)",
+                    () -> smartContractPath, () -> functionIdentifier, () -> hotPathLog.truncate(result), () -> suppressed);
+        }
+    }
+
+    /**
+     * @return the metrics of the current event subscriptions, named after their chaincode events.
+     */
+    public List<SubscriberMetrics> getSubscriberMetrics() {
+        List<ChaincodeEventHub> hubs;
+
+        synchronized (this.eventHubs) {
+            hubs = new ArrayList<>(this.eventHubs.values());
+        }
+
+        return hubs.stream().flatMap(hub -> hub.getSubscriberMetrics().stream()).toList();
+    }
+
+    /**
+     * Starts buffering the recent events of a chaincode without subscribing to them, so that later subscriptions can
+     * replay them from memory. Queries are only answered from memory while the buffer holds all events of the
+     * chaincode. Has no effect if the event buffer is disabled.
+     *
+     * @param smartContractAddress the path to the chaincode: channel/chaincode.
+     * @throws BalException if the network cannot be reached.
+     */
+    public void startEventBuffer(String smartContractAddress) throws BalException {
+        if (this.eventBufferCapacity <= 0) {
+            log.warn("The event buffer is disabled. Ignoring...");
+            return;
+        }
+
+        try {
+            getEventHub(this.parsePathElements(smartContractAddress));
+        } catch (BalException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to start buffering the events of {}.", smartContractAddress);
+            throw new BlockchainNodeUnreachableException(e.getMessage());
+        }
+    }
+
+    private ChaincodeEventHub getEventHub(SmartContractPathElements path) throws Exception {
+        final String key = path.channel + "/" + path.chaincode;
+        ChaincodeEventHub hub = getOpenEventHub(key);
+
+        if (hub != null) {
+            return hub;
+        }
+
+        Network network = getNetwork(path.channel);
+
+        if (this.eventIngestionMode == EventIngestionMode.CHANNEL) {
+            Long startBlock = null;
+
+            while (true) {
+                synchronized (this.eventHubs) {
+                    hub = getOpenEventHub(key);
+
+                    if (hub != null) {
+                        return hub;
+                    }
+
+                    ChannelBlockIngestion ingestion = getChannelIngestion(network, path.channel, startBlock);
+
+                    if (ingestion != null) {
+                        final ChaincodeEventHub newHub = new ChaincodeEventHub(path.chaincode,
+                                this.eventBufferCapacity > 0 ? new RecentEventBuffer(this.eventBufferCapacity, ingestion.getNextBlock()) : null,
+                                this.slowConsumerPolicy,
+                                () -> removeEventHub(key, null));
+                        ingestion.addHub(newHub);
+                        this.eventHubs.put(key, newHub);
+
+                        return newHub;
+                    }
                 }
 
+                // the channel has no block stream: resolve its start block without holding the lock, then check again.
+                startBlock = this.retryPolicy.execute(this.circuitBreaker,
+                        () -> getCurrentBlockHeight(network, path.channel));
+            }
+        }
+
+        // start from an explicit block, so that the stream can be resumed without gaps after a reconnect. The block is
+        // resolved without holding the lock, since it is a (retried) network call that would stall all other hubs.
+        final long startBlock = this.retryPolicy.execute(this.circuitBreaker,
+                () -> getCurrentBlockHeight(network, path.channel));
+
+        synchronized (this.eventHubs) {
+            hub = getOpenEventHub(key);
+
+            if (hub != null) {
+                // another subscription created the hub in the meantime.
+                return hub;
+            }
+
+            final ChaincodeEventHub newHub = new ChaincodeEventHub(path.chaincode,
+                    this.eventBufferCapacity > 0 ? new RecentEventBuffer(this.eventBufferCapacity, startBlock) : null,
+                    this.slowConsumerPolicy,
+                    () -> removeEventHub(key, null));
+            newHub.start(() -> {
                 try {
-                    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
-                } catch (InterruptedException e) {
-                    log.warn("An error occurred while trying to close the network connection. Ignoring...", e);
+                    streamChaincodeEvents(network, path.chaincode, startBlock, newHub.getCurrentIterator(),
+                            newHub.getClosed(), newHub::publish);
+                    // the stream ended (or the hub was closed): let the subscriptions know instead of leaving them open.
+                    newHub.complete();
+                } catch (RuntimeException e) {
+                    log.error("The event stream of chaincode {} failed.", path.chaincode, e);
+                    newHub.fail(e);
+                } finally {
+                    removeEventHub(key, newHub);
                 }
+            });
+            this.eventHubs.put(key, newHub);
 
-                gateway.close();
+            return newHub;
+        }
+    }
 
-                executorService.shutdownNow();
-            });
+    private ChaincodeEventHub getOpenEventHub(String key) {
+        synchronized (this.eventHubs) {
+            ChaincodeEventHub hub = this.eventHubs.get(key);
 
-        } catch (IOException e) {
-            log.error("Failed to establish network connection.", e);
-            throw new BlockchainNodeUnreachableException(e.getMessage());
+            return hub != null && !hub.getClosed().get() ? hub : null;
         }
+    }
 
+    /**
+     * Removes and closes an event hub.
+     *
+     * @param key the key of the hub.
+     * @param hub the hub to remove, or null to remove the current hub of the key only if it is (still) idle.
+     */
+    private void removeEventHub(String key, ChaincodeEventHub hub) {
+        ChaincodeEventHub removed = null;
+        ChannelBlockIngestion unusedIngestion = null;
+
+        synchronized (this.eventHubs) {
+            ChaincodeEventHub current = this.eventHubs.get(key);
+
+            if (current != null && (current == hub || (hub == null && current.isIdle()))) {
+                removed = this.eventHubs.remove(key);
+            }
+
+            ChaincodeEventHub detached = removed != null ? removed : hub;
+            String channelName = key.substring(0, key.indexOf('/'));
+            ChannelBlockIngestion ingestion = this.channelIngestions.get(channelName);
+
+            if (detached != null && ingestion != null) {
+                ingestion.removeHub(detached);
+
+                if (ingestion.isEmpty()) {
+                    unusedIngestion = this.channelIngestions.remove(channelName);
+                }
+            }
+        }
+
+        if (removed != null) {
+            removed.close();
+        } else if (hub != null) {
+            hub.close();
+        }
+
+        if (unusedIngestion != null) {
+            unusedIngestion.close();
+        }
+    }
+
+    /**
+     * Gets the block stream of a channel, starting it at the given block if needed. Must be called while holding the
+     * lock of {@link #eventHubs}, so it does no network calls itself.
+     *
+     * @param startBlock the block from which a new stream starts, or null to not start a new stream.
+     * @return the block stream, or null if the channel has none and no start block is given.
+     */
+    private ChannelBlockIngestion getChannelIngestion(Network network, String channelName, Long startBlock) {
+        ChannelBlockIngestion ingestion = this.channelIngestions.get(channelName);
+
+        if (ingestion != null || startBlock == null) {
+            return ingestion;
+        }
+
+        final ChannelBlockIngestion newIngestion = new ChannelBlockIngestion(channelName, network, startBlock, this.retryPolicy);
+        newIngestion.start(error -> removeChannelIngestion(newIngestion, error));
+        this.channelIngestions.put(channelName, newIngestion);
+
+        return newIngestion;
+    }
+
+    /**
+     * Removes a terminated block stream together with the event hubs it served.
+     */
+    private void removeChannelIngestion(ChannelBlockIngestion ingestion, Throwable error) {
+        List<ChaincodeEventHub> hubs = new ArrayList<>();
+
+        synchronized (this.eventHubs) {
+            this.channelIngestions.remove(ingestion.getChannel(), ingestion);
+
+            for (ChaincodeEventHub hub : ingestion.getHubs()) {
+                this.eventHubs.remove(ingestion.getChannel() + "/" + hub.getChaincode(), hub);
+                hubs.add(hub);
+            }
+        }
+
+        for (ChaincodeEventHub hub : hubs) {
+            if (error != null) {
+                hub.fail(error);
+            } else {
+                hub.complete();
+            }
+
+            hub.close();
+        }
+
+        ingestion.close();
+    }
+
+    /**
+     * Reads the chaincode events of a chaincode starting at the given block. Transient stream failures are retried with
+     * backoff, resuming from the block of the last delivered event and skipping the events already delivered from it.
+     */
+    private void streamChaincodeEvents(Network network, String chaincode, long startBlock,
+                                       AtomicReference<CloseableIterator<?>> currentEventIter,
+                                       AtomicBoolean closed, Consumer<ChaincodeEvent> consumer) {
+        long resumeBlock = startBlock;
+        Set<String> deliveredTransactions = new HashSet<>();
+        int failedAttempts = 0;
+
+        while (!closed.get()) {
+            try {
+                CloseableIterator<ChaincodeEvent> eventIter = network.newChaincodeEventsRequest(chaincode)
+                        .startBlock(resumeBlock)
+                        .build()
+                        .getEvents();
+                currentEventIter.set(eventIter);
+
+                if (closed.get()) {
+                    eventIter.close();
+                    return;
+                }
+
+                while (eventIter.hasNext()) {
+                    ChaincodeEvent event = eventIter.next();
+                    failedAttempts = 0;
+
+                    if (event.getBlockNumber() != resumeBlock) {
+                        resumeBlock = event.getBlockNumber();
+                        deliveredTransactions.clear();
+                    }
+
+                    // a transaction emits at most a single chaincode event.
+                    if (deliveredTransactions.add(event.getTransactionId())) {
+                        consumer.accept(event);
+                    }
+                }
+
+                return;
+            } catch (GatewayRuntimeException e) {
+                if (closed.get() || e.getStatus().getCode() == Status.Code.CANCELLED) {
+                    return;
+                }
+
+                if (!RetryPolicy.isTransient(e) || ++failedAttempts >= this.retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+
+                long backoff = this.retryPolicy.getBackoffMillis(failedAttempts);
+                log.warn("The event stream of chaincode {} failed. Reconnecting from block {} in {} ms...", chaincode, resumeBlock, backoff, e);
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
     }
 
     @Override
@@ -315,61 +920,114 @@ public class FabricAdapter implements BlockchainAdapter {
         final LocalDateTime toDateTime = timeFrame != null ? timeFrame.getToLocalDateTime() : null;
 
 
-        try {
-            ManagedChannel channel = newGrpcConnection();
-            final CompletableFuture<QueryResult> result = new CompletableFuture<>();
-            final QueryResult queryResult = QueryResult.builder().occurrences(new ArrayList<>()).build();
-
-            try (Gateway gateway = createGateway(channel)) {
-                Network network = gateway.getNetwork(path.channel);
-                final long currentBlockNumber = getCurrentBlockHeight(network, path.channel);
-                var request = network.newChaincodeEventsRequest(path.chaincode)
-                        .startBlock(0)
-                        .build();
+        final CompletableFuture<QueryResult> result = new CompletableFuture<>();
+        final HotPathLog hotPathLog = this.hotPathLog;
+        final QueryResult buffered = queryBufferedEvents(findEventBuffer(path), eventIdentifier, outputParameters, filter,
+                fromDateTime, toDateTime);
+
+        if (buffered != null) {
+            result.complete(buffered);
+
+            return result;
+        }
 
-                try (var eventIter = request.getEvents(callOptions -> callOptions.withDeadlineAfter(EVENT_QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS))) {
-                    while (eventIter.hasNext()) {
-                        ChaincodeEvent event = eventIter.next();
-                        log.debug("Handling event: {}...", event);
-                        Occurrence currentOccurrence = handleEvent(event, eventIdentifier, outputParameters, filter);
-
-                        if (currentOccurrence != null) {
-                            queryResult.getOccurrences().add(currentOccurrence);
-                        }
-                        if (event.getBlockNumber() >= currentBlockNumber) {
-                            break;
-                        }
+        final QueryResult queryResult = QueryResult.builder().occurrences(new ArrayList<>()).build();
+
+        try {
+            Network network = getNetwork(path.channel);
+            final long currentBlockNumber = getCurrentBlockHeight(network, path.channel);
+            var request = network.newChaincodeEventsRequest(path.chaincode)
+                    .startBlock(0)
+                    .build();
+
+            try (var eventIter = request.getEvents(callOptions -> callOptions.withDeadlineAfter(EVENT_QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS))) {
+                while (eventIter.hasNext()) {
+                    ChaincodeEvent event = eventIter.next();
+
+                    if (log.isDebugEnabled() && hotPathLog.permit(path.channel + "/" + path.chaincode + "/" + eventIdentifier) >= 0) {
+                        log.debug("Handling event: {}...", () -> hotPathLog.describe(event));
                     }
 
-                    result.complete(queryResult);
-                }
+                    Occurrence currentOccurrence = handleEvent(event, eventIdentifier, outputParameters, filter);
 
-            } catch (CertificateException | InvalidKeyException | GatewayException e) {
-                log.error("Failed to query past event occurrences for event: {}/{}.", smartContractAddress, eventIdentifier);
-                // this is a synchronous exception.
-                throw new BlockchainNodeUnreachableException(e.getMessage());
-            } catch(GatewayRuntimeException e) {
-                // hacky way to finish waiting for events!
-               if (e.getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode()) {
-                   result.complete(queryResult);
-               } else {
-                   throw e;
-               }
-            } finally {
-                try {
-                    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
-                } catch (InterruptedException e) {
-                    log.warn("An error occurred while trying to close the network connection. Ignoring...", e);
+                    if (currentOccurrence != null) {
+                        queryResult.getOccurrences().add(currentOccurrence);
+                    }
+                    if (event.getBlockNumber() >= currentBlockNumber) {
+                        break;
+                    }
                 }
-            }
 
-            return result;
+                result.complete(queryResult);
+            }
 
+        } catch (CertificateException | InvalidKeyException | GatewayException e) {
+            log.error("Failed to query past event occurrences for event: {}/{}.", smartContractAddress, eventIdentifier);
+            // this is a synchronous exception.
+            throw new BlockchainNodeUnreachableException(e.getMessage());
+        } catch (GatewayRuntimeException e) {
+            // hacky way to finish waiting for events!
+            if (e.getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode()) {
+                result.complete(queryResult);
+            } else {
+                throw e;
+            }
         } catch (IOException e) {
             log.error("Failed to establish network connection.", e);
             throw new BlockchainNodeUnreachableException(e.getMessage());
         }
 
+        return result;
+    }
+
+    /**
+     * Answers a query from the buffer of a live subscription, which is possible if the time frame starts after the
+     * buffer started receiving events and after its oldest evicted event. Events are matched to the time frame by the
+     * time they were received.
+     *
+     * @param from the start of the time frame (UTC), or null to query all events since the first block.
+     * @param to   the end of the time frame (UTC), or null for no end.
+     * @return the occurrences, or null if the buffer cannot answer the query.
+     */
+    QueryResult queryBufferedEvents(RecentEventBuffer buffer, String eventIdentifier, List<Parameter> outputParameters,
+                                    String filter, LocalDateTime from, LocalDateTime to) throws InvalidScipParameterException {
+        // without a start, the ledger query returns all events since the first block, which the buffer does not hold.
+        if (buffer == null || from == null) {
+            return null;
+        }
+
+        long fromMillis = toEpochMillis(from);
+        long toMillis = to != null ? toEpochMillis(to) : Long.MAX_VALUE;
+        List<ChaincodeEvent> events = buffer.getAllReceivedBetween(fromMillis, toMillis);
+
+        if (events == null) {
+            return null;
+        }
+
+        QueryResult queryResult = QueryResult.builder().occurrences(new ArrayList<>()).build();
+
+        for (ChaincodeEvent event : events) {
+            Occurrence occurrence = handleEvent(event, eventIdentifier, outputParameters, filter);
+
+            if (occurrence != null) {
+                queryResult.getOccurrences().add(occurrence);
+            }
+        }
+
+        return queryResult;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        // timestamps are in UTC, see getCurrentTimestamp().
+        return dateTime.atZone(ZoneId.of("UTC")).toInstant().toEpochMilli();
+    }
+
+    private RecentEventBuffer findEventBuffer(SmartContractPathElements path) {
+        synchronized (this.eventHubs) {
+            ChaincodeEventHub hub = this.eventHubs.get(path.channel + "/" + path.chaincode);
+
+            return hub != null && !hub.getClosed().get() ? hub.getBuffer() : null;
+        }
     }
 
     @Override
@@ -380,24 +1038,11 @@ public class FabricAdapter implements BlockchainAdapter {
         List<Parameter> txIdAsList = new ArrayList<>();
         List<Parameter> emptyList = new ArrayList<>();
         txIdAsList.add(txId);
-        SmartContractFunction prepare = new SmartContractFunction("prepare", txIdAsList, emptyList);
-        SmartContractFunction commit = new SmartContractFunction("commit", txIdAsList, emptyList);
-        SmartContractFunction abort = new SmartContractFunction("abort", txIdAsList, emptyList);
-        Parameter owner = new Parameter("owner",
-                "{ \"type\": \"string\" }",
-                null);
-        Parameter isYes = new Parameter("isYes",
-                "{ \"type\": \"string\" }",
-                null);
-        List<Parameter> votedEventParams = new ArrayList<>();
-        votedEventParams.add(owner);
-        votedEventParams.add(txId);
-        votedEventParams.add(isYes);
-        List<Parameter> abortedEventParams = new ArrayList<>();
-        abortedEventParams.add(owner);
-        abortedEventParams.add(txId);
-        SmartContractEvent voted = new SmartContractEvent("Voted", votedEventParams);
-        SmartContractEvent aborted = new SmartContractEvent("TxAborted", abortedEventParams);
+        SmartContractFunction prepare = new SmartContractFunction(RM_PREPARE, txIdAsList, emptyList);
+        SmartContractFunction commit = new SmartContractFunction(RM_COMMIT, txIdAsList, emptyList);
+        SmartContractFunction abort = new SmartContractFunction(RM_ABORT, txIdAsList, emptyList);
+        SmartContractEvent voted = new SmartContractEvent(RM_VOTED_EVENT, getResourceManagerEventParameters(RM_VOTED_EVENT));
+        SmartContractEvent aborted = new SmartContractEvent(RM_ABORTED_EVENT, getResourceManagerEventParameters(RM_ABORTED_EVENT));
         List<SmartContractFunction> functions = new ArrayList<>();
         functions.add(prepare);
         functions.add(commit);
@@ -409,6 +1054,504 @@ public class FabricAdapter implements BlockchainAdapter {
         return new FabricResourceManagerSmartContract(this.resourceManagerSmartContractAddress, functions, events);
     }
 
+    /**
+     * Invokes the prepare function of the resource manager smart contract for many global transactions at once, and
+     * correlates the resulting Voted/TxAborted events back to their transaction ids through a single event subscription.
+     *
+     * @param txIds         the ids of the global transactions to prepare.
+     * @param timeoutMillis the maximum time to wait for all votes (non-positive values mean the default of 60 seconds).
+     * @return a future that completes with the Voted (or TxAborted) event occurrence of each transaction id.
+     * @throws BalException if the network cannot be reached.
+     */
+    public CompletableFuture<Map<String, Occurrence>> prepareBatch(List<String> txIds, long timeoutMillis) throws BalException {
+        return invokeResourceManagerBatch(RM_PREPARE, txIds, true, timeoutMillis);
+    }
+
+    /**
+     * Invokes the commit function of the resource manager smart contract for many global transactions at once.
+     *
+     * @param txIds         the ids of the global transactions to commit.
+     * @param timeoutMillis the maximum time to wait for all commits (non-positive values mean the default of 60 seconds).
+     * @return a future that completes when all invocations are committed to the ledger.
+     * @throws BalException if the network cannot be reached.
+     */
+    public CompletableFuture<Void> commitBatch(List<String> txIds, long timeoutMillis) throws BalException {
+        return invokeResourceManagerBatch(RM_COMMIT, txIds, false, timeoutMillis).thenApply(votes -> null);
+    }
+
+    /**
+     * Invokes the abort function of the resource manager smart contract for many global transactions at once.
+     *
+     * @param txIds         the ids of the global transactions to abort.
+     * @param timeoutMillis the maximum time to wait for all aborts (non-positive values mean the default of 60 seconds).
+     * @return a future that completes when all invocations are committed to the ledger.
+     * @throws BalException if the network cannot be reached.
+     */
+    public CompletableFuture<Void> abortBatch(List<String> txIds, long timeoutMillis) throws BalException {
+        return invokeResourceManagerBatch(RM_ABORT, txIds, false, timeoutMillis).thenApply(votes -> null);
+    }
+
+    private CompletableFuture<Map<String, Occurrence>> invokeResourceManagerBatch(String functionIdentifier,
+                                                                                 List<String> txIds,
+                                                                                 boolean awaitVotes,
+                                                                                 long timeoutMillis) throws BalException {
+        if (txIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+
+        SmartContractPathElements path = this.parsePathElements(this.resourceManagerSmartContractAddress);
+        // the map is fully populated before any other thread accesses it, so it is safe to read it concurrently.
+        final Map<String, CompletableFuture<Occurrence>> votes = new LinkedHashMap<>();
+        txIds.forEach(txId -> votes.put(txId, new CompletableFuture<>()));
+        // without a timeout, a vote that is never emitted would keep the batch (and its event stream) open forever.
+        final long effectiveTimeoutMillis = timeoutMillis > 0 ? timeoutMillis : DEFAULT_RM_BATCH_TIMEOUT_MILLIS;
+        CloseableIterator<ChaincodeEvent> eventIter = null;
+
+        try {
+            Network network = getNetwork(path.channel);
+            Contract contract = getContract(network, path);
+
+            if (awaitVotes) {
+                // start from the next block so that no vote can be committed before the subscription is in place.
+                final long startBlock = getCurrentBlockHeight(network, path.channel);
+                eventIter = network.newChaincodeEventsRequest(path.chaincode).startBlock(startBlock).build().getEvents();
+                final CloseableIterator<ChaincodeEvent> votesIter = eventIter;
+                getResourceManagerEventExecutor().execute(() -> correlateResourceManagerVotes(votesIter, votes,
+                        this::toResourceManagerVote));
+            }
+
+            CompletableFuture<Void> invocations = this.resourceManagerBatchSupported ?
+                    submitResourceManagerBatch(contract, functionIdentifier, txIds, getResourceManagerInvocationExecutor()) :
+                    invokeResourceManagerPipelined(txIds, getResourceManagerInvocationExecutor(),
+                            txId -> submit(contract, functionIdentifier, Collections.emptyMap(), txId.getBytes(StandardCharsets.UTF_8)));
+            CompletableFuture<Void> allVotes = awaitVotes ?
+                    CompletableFuture.allOf(votes.values().toArray(new CompletableFuture[0])) :
+                    CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> done = invocations
+                    .thenCompose(v -> allVotes)
+                    .orTimeout(effectiveTimeoutMillis, TimeUnit.MILLISECONDS);
+            final CloseableIterator<ChaincodeEvent> batchEventIter = eventIter;
+
+            return done.handle((v, e) -> {
+                closeResourceManagerBatch(batchEventIter);
+
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("Failed to invoke {} on the resource manager smart contract for a batch of {} transactions.",
+                            functionIdentifier, txIds.size(), cause);
+                    throw new CompletionException(new InvokeSmartContractFunctionFailure(cause.getMessage()));
+                }
+
+                Map<String, Occurrence> result = new LinkedHashMap<>();
+
+                if (awaitVotes) {
+                    votes.forEach((txId, vote) -> result.put(txId, vote.join()));
+                }
+
+                return result;
+            });
+        } catch (CertificateException | InvalidKeyException | IOException | GatewayException e) {
+            log.error("Failed to invoke {} on the resource manager smart contract for a batch of {} transactions.",
+                    functionIdentifier, txIds.size(), e);
+            closeResourceManagerBatch(eventIter);
+            // this is a synchronous exception.
+            throw new BlockchainNodeUnreachableException(e.getMessage());
+        }
+    }
+
+    private synchronized ExecutorService getResourceManagerInvocationExecutor() {
+        if (this.resourceManagerInvocationExecutor == null) {
+            this.resourceManagerInvocationExecutor = AsyncManager.createExecutorService(MAX_PIPELINED_RM_INVOCATIONS);
+        }
+
+        return this.resourceManagerInvocationExecutor;
+    }
+
+    private synchronized ExecutorService getResourceManagerEventExecutor() {
+        if (this.resourceManagerEventExecutor == null) {
+            this.resourceManagerEventExecutor = AsyncManager.createExecutorService();
+        }
+
+        return this.resourceManagerEventExecutor;
+    }
+
+    private CompletableFuture<Void> submitResourceManagerBatch(Contract contract, String functionIdentifier,
+                                                               List<String> txIds, ExecutorService executorService) {
+        JsonArray txIdsAsJson = new JsonArray();
+        txIds.forEach(txIdsAsJson::add);
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                contract.submitTransaction(functionIdentifier + RM_BATCH_SUFFIX, txIdsAsJson.toString());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executorService);
+    }
+
+    /**
+     * Invokes the resource manager once per transaction id. The invocations run concurrently, bounded by the executor.
+     *
+     * @return a future that completes when all invocations completed, or exceptionally as soon as one of them failed.
+     */
+    static CompletableFuture<Void> invokeResourceManagerPipelined(List<String> txIds, Executor executor,
+                                                                  ResourceManagerInvocation invocation) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture<?>[] invocations = txIds
+                .stream()
+                .map(txId -> CompletableFuture.runAsync(() -> {
+                    try {
+                        invocation.invoke(txId);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor).whenComplete((v, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(invocations).thenRun(() -> result.complete(null));
+
+        return result;
+    }
+
+    /**
+     * Endorses and submits a transaction, then waits for it to be committed. Only the commit status poll is retried,
+     * since it is the only idempotent phase.
+     */
+    private byte[] submit(Contract contract, String functionIdentifier, Map<String, byte[]> transientData,
+                          byte[]... args) throws Exception {
+        var transaction = this.circuitBreaker.call(() -> contract.newProposal(functionIdentifier)
+                .addArguments(args)
+                .putAllTransient(transientData)
+                .build()
+                .endorse());
+        var submitted = this.circuitBreaker.call(transaction::submitAsync);
+        var status = this.retryPolicy.execute(this.circuitBreaker, submitted::getStatus);
+
+        if (!status.isSuccessful()) {
+            throw new InvokeSmartContractFunctionFailure(String.format("Transaction %s failed to commit with status code %s",
+                    status.getTransactionId(), status.getCode()));
+        }
+
+        return submitted.getResult();
+    }
+
+    /**
+     * Completes the votes of a batch from the Voted/TxAborted events of the resource manager, which carry the id of
+     * their transaction in the JSON field "txId". Votes that are still missing when the event stream ends (or fails) are
+     * completed exceptionally. A malformed event only fails the vote of its own transaction, or is skipped if it does
+     * not name one.
+     *
+     * @param eventIter    the events emitted after the batch was started.
+     * @param votes        the votes by transaction id.
+     * @param toOccurrence converts a vote event to its occurrence.
+     */
+    static void correlateResourceManagerVotes(CloseableIterator<ChaincodeEvent> eventIter,
+                                              Map<String, CompletableFuture<Occurrence>> votes,
+                                              ResourceManagerVoteConverter toOccurrence) {
+        int remaining = votes.size();
+        Exception failure = null;
+
+        try {
+            while (remaining > 0 && eventIter.hasNext()) {
+                ChaincodeEvent event = eventIter.next();
+                String eventName = event.getEventName();
+
+                if (!RM_VOTED_EVENT.equals(eventName) && !RM_ABORTED_EVENT.equals(eventName)) {
+                    continue;
+                }
+
+                String txId;
+
+                try {
+                    txId = JsonParser.parseString(new String(event.getPayload(), StandardCharsets.UTF_8))
+                            .getAsJsonObject()
+                            .get("txId")
+                            .getAsString();
+                } catch (RuntimeException e) {
+                    log.warn("Skipping a {} event of the resource manager without a transaction id (tx: {}).",
+                            eventName, event.getTransactionId(), e);
+                    continue;
+                }
+
+                CompletableFuture<Occurrence> vote = votes.get(txId);
+
+                if (vote == null || vote.isDone()) {
+                    continue;
+                }
+
+                boolean completed;
+
+                try {
+                    completed = vote.complete(toOccurrence.convert(event));
+                } catch (Exception e) {
+                    log.error("Failed to handle the {} event of the resource manager for transaction {}.", eventName, txId, e);
+                    completed = vote.completeExceptionally(new InvokeSmartContractFunctionFailure(
+                            String.format("Malformed %s event for transaction %s: %s", eventName, txId, e.getMessage())));
+                }
+
+                if (completed) {
+                    remaining--;
+                }
+            }
+        } catch (GatewayRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.CANCELLED) {
+                log.error("The resource manager event subscription failed.", e);
+                failure = e;
+            }
+        } catch (Exception e) {
+            log.error("Failed to correlate resource manager events.", e);
+            failure = e;
+        }
+
+        if (remaining > 0) {
+            Exception cause = failure != null ? failure :
+                    new InvokeSmartContractFunctionFailure("The resource manager event stream ended before all votes were received.");
+            // completing a vote that is already done has no effect.
+            votes.values().forEach(vote -> vote.completeExceptionally(cause));
+        }
+    }
+
+    /**
+     * Converts a Voted/TxAborted event of the resource manager smart contract to its occurrence.
+     */
+    Occurrence toResourceManagerVote(ChaincodeEvent event) throws InvalidScipParameterException {
+        return handleEvent(event, event.getEventName(), getResourceManagerEventParameters(event.getEventName()), null);
+    }
+
+    private static void closeResourceManagerBatch(CloseableIterator<ChaincodeEvent> eventIter) {
+        if (eventIter != null) {
+            eventIter.close();
+        }
+    }
+
+    /**
+     * A single invocation of the resource manager smart contract for a transaction id.
+     */
+    @FunctionalInterface
+    interface ResourceManagerInvocation {
+        void invoke(String txId) throws Exception;
+    }
+
+    /**
+     * Converts a Voted/TxAborted event of the resource manager smart contract to its occurrence.
+     */
+    @FunctionalInterface
+    interface ResourceManagerVoteConverter {
+        Occurrence convert(ChaincodeEvent event) throws Exception;
+    }
+
+    /**
+     * Enables hedging of read-only invocations: when the peer does not answer an evaluation within the delay specified
+     * by the policy, the evaluation is sent to one of the given hedge peers as well, and the first response wins. Calling
+     * this again replaces the policy; evaluations in flight finish with the previous one. If the hedge peers change, the
+     * connections to the previous ones are closed.
+     *
+     * @param policy     the hedging policy.
+     * @param hedgePeers the hedge peers in the form endpoint[=overrideAuthority]. Their TLS certificates are looked up
+     *                   in the crypto path, so they must belong to the same organization as the main peer.
+     */
+    public synchronized void enableHedging(HedgingPolicy policy, List<String> hedgePeers) {
+        if (hedgePeers == null || hedgePeers.isEmpty()) {
+            log.warn("Hedging requires at least one hedge peer. Ignoring...");
+            return;
+        }
+
+        if (!this.hedgePeers.equals(hedgePeers)) {
+            closeHedgePeers();
+            this.hedgePeers = new ArrayList<>(hedgePeers);
+        }
+
+        final HedgedEvaluator previous = this.hedgedEvaluator;
+        this.hedgedEvaluator = new HedgedEvaluator(policy);
+
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Sets the settings of the circuit breakers of the peer and of the hedge peers. The breakers are shared per peer
+     * endpoint and settings, so this does not affect adapters that use other settings for the same peers. Hedge peers
+     * that are already connected keep their breakers.
+     *
+     * @param failureThreshold the number of consecutive transient failures that open a breaker.
+     * @param openMillis       how long a breaker stays open before letting a probe through.
+     */
+    public synchronized void configureCircuitBreakers(int failureThreshold, long openMillis) {
+        this.circuitBreakerFailureThreshold = failureThreshold;
+        this.circuitBreakerOpenMillis = openMillis;
+        this.circuitBreaker = CircuitBreaker.forPeer(this.peerEndpoint, failureThreshold, openMillis);
+    }
+
+    /**
+     * @return the hedging counters, or null if hedging is not enabled.
+     */
+    public HedgingMetrics getHedgingMetrics() {
+        final HedgedEvaluator hedgedEvaluator = this.hedgedEvaluator;
+
+        return hedgedEvaluator != null ? hedgedEvaluator.getMetrics() : null;
+    }
+
+    /**
+     * Prepares this adapter for serving requests at steady-state latency: connects the gateway (loading the identity and
+     * the signer, and performing the TLS handshake) and runs a no-op evaluation on each of the given channels.
+     *
+     * @param channelNames the channels to warm up.
+     */
+    public void warmUp(List<String> channelNames) {
+        long start = System.currentTimeMillis();
+
+        try {
+            getGateway();
+
+            for (String channelName : channelNames) {
+                getCurrentBlockHeight(getNetwork(channelName), channelName);
+            }
+
+            log.info("Warmed up the Fabric adapter of peer {} in {} ms.", this.peerEndpoint, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Failed to warm up the Fabric adapter of peer {}. Ignoring...", this.peerEndpoint, e);
+        }
+    }
+
+    /**
+     * Releases the long-lived connections held by this adapter.
+     */
+    public void close() {
+        List<FabricAdapter> identities;
+
+        // the adapters of other identities are closed without holding this lock, since they lock it to get the channel.
+        synchronized (this) {
+            identities = new ArrayList<>(this.identityAdapters.values());
+            this.identityAdapters.clear();
+        }
+
+        identities.forEach(FabricAdapter::close);
+        this.closeConnections();
+    }
+
+    private synchronized void closeConnections() {
+        List<ChaincodeEventHub> hubs;
+        List<ChannelBlockIngestion> ingestions;
+
+        synchronized (this.eventHubs) {
+            hubs = new ArrayList<>(this.eventHubs.values());
+            ingestions = new ArrayList<>(this.channelIngestions.values());
+            this.eventHubs.clear();
+            this.channelIngestions.clear();
+        }
+
+        ingestions.forEach(ChannelBlockIngestion::close);
+        hubs.forEach(ChaincodeEventHub::close);
+
+        if (this.connectivityMonitor != null) {
+            this.connectivityMonitor.close();
+            this.connectivityMonitor = null;
+        }
+
+        if (this.gateway != null) {
+            this.gateway.close();
+            this.gateway = null;
+        }
+
+        if (this.channel != null) {
+            try {
+                this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                log.warn("An error occurred while trying to close the network connection. Ignoring...", e);
+                Thread.currentThread().interrupt();
+            }
+
+            this.channel = null;
+        }
+
+        if (this.hedgedEvaluator != null) {
+            this.hedgedEvaluator.close();
+        }
+
+        closeHedgePeers();
+
+        if (this.resourceManagerInvocationExecutor != null) {
+            this.resourceManagerInvocationExecutor.shutdownNow();
+            this.resourceManagerInvocationExecutor = null;
+        }
+
+        if (this.resourceManagerEventExecutor != null) {
+            this.resourceManagerEventExecutor.shutdownNow();
+            this.resourceManagerEventExecutor = null;
+        }
+    }
+
+    /**
+     * Closes the connections to the hedge peers. They are reconnected on the next hedge. Hedged calls in flight on the
+     * closed channels are allowed to finish.
+     */
+    private synchronized void closeHedgePeers() {
+        this.hedgeGateways.forEach(Gateway::close);
+        this.hedgeGateways.clear();
+        this.hedgeBreakers.clear();
+        this.hedgeChannels.forEach(ManagedChannel::shutdown);
+        this.hedgeChannels.clear();
+        this.hedgeConnectivityMonitors.forEach(ConnectivityMonitor::close);
+        this.hedgeConnectivityMonitors.clear();
+    }
+
+    private synchronized Callable<byte[]> getHedgeEvaluation(SmartContractPathElements path, String functionIdentifier,
+                                                             byte[][] args) {
+        List<Gateway> gateways = getHedgeGateways();
+        int index = Math.floorMod(nextHedgeGateway.getAndIncrement(), gateways.size());
+        Contract contract = getContract(gateways.get(index).getNetwork(path.channel), path);
+        CircuitBreaker breaker = this.hedgeBreakers.get(index);
+
+        return () -> breaker.call(() -> contract.evaluateTransaction(functionIdentifier, args));
+    }
+
+    private synchronized List<Gateway> getHedgeGateways() {
+        if (this.hedgeGateways.isEmpty()) {
+            try {
+                for (String hedgePeer : this.hedgePeers) {
+                    String[] parts = hedgePeer.trim().split("=", 2);
+                    String endpoint = parts[0];
+                    String authority = parts.length == 2 && !parts[1].isEmpty() ? parts[1] : null;
+                    String host = authority != null ? authority : endpoint.split(":")[0];
+                    Path tlsCertPath = this.cryptoPath.resolve("peers").resolve(host).resolve("tls").resolve("ca.crt");
+                    ManagedChannel channel = newGrpcConnection(endpoint, authority, tlsCertPath);
+                    this.hedgeChannels.add(channel);
+                    this.hedgeGateways.add(createGateway(channel));
+                    this.hedgeBreakers.add(CircuitBreaker.forPeer(endpoint, this.circuitBreakerFailureThreshold,
+                            this.circuitBreakerOpenMillis));
+                    this.hedgeConnectivityMonitors.add(new ConnectivityMonitor(channel, this.connectivityPingIntervalMillis));
+                }
+            } catch (IOException | CertificateException | InvalidKeyException e) {
+                log.error("Failed to connect to the hedge peers.", e);
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return this.hedgeGateways;
+    }
+
+    private static List<Parameter> getResourceManagerEventParameters(String eventName) {
+        List<Parameter> parameters = new ArrayList<>();
+        parameters.add(new Parameter("owner", "{ \"type\": \"string\" }", null));
+        parameters.add(new Parameter("txId", "{ \"type\": \"string\" }", null));
+
+        if (RM_VOTED_EVENT.equals(eventName)) {
+            parameters.add(new Parameter("isYes", "{ \"type\": \"string\" }", null));
+        }
+
+        return parameters;
+    }
+
+    private static Contract getContract(Network network, SmartContractPathElements path) {
+        return path.smartContract != null && !path.smartContract.isEmpty() ?
+                network.getContract(path.chaincode, path.smartContract) :
+                network.getContract(path.chaincode);
+    }
+
     private String prettyJson(final byte[] json) {
         return prettyJson(new String(json, StandardCharsets.UTF_8));
     }
@@ -455,18 +1598,61 @@ public class FabricAdapter implements BlockchainAdapter {
     @Override
     public String testConnection() {
         try {
-            ManagedChannel channel = newGrpcConnection();
-            ConnectivityState state = channel.getState(true);
-            channel.shutdownNow();
-
-            return state.toString();
-
+            // served from the state cached by the monitor of the shared channel, which is connected on first use. Right
+            // after connecting, the state is only known once the channel settled.
+            return getConnectivityMonitor().awaitSettledState(TEST_CONNECTION_TIMEOUT_MILLIS).toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e.getMessage();
         } catch (Exception e) {
             log.error("Failed to establish network connection.", e);
             return e.getMessage();
         }
     }
 
+    /**
+     * @return true if the peer is reachable according to the cached state of the connectivity monitor.
+     */
+    public boolean isReady() {
+        if (this.parent != null) {
+            return this.parent.isReady();
+        }
+
+        ConnectivityMonitor monitor = this.connectivityMonitor;
+
+        return monitor != null && monitor.isReady();
+    }
+
+    /**
+     * @return the connectivity monitors of the shared channel and of the hedge channels opened so far.
+     */
+    public synchronized List<ConnectivityMonitor> getConnectivityMonitors() {
+        List<ConnectivityMonitor> result = new ArrayList<>();
+
+        if (this.connectivityMonitor != null) {
+            result.add(this.connectivityMonitor);
+        }
+
+        result.addAll(this.hedgeConnectivityMonitors);
+
+        return result;
+    }
+
+    private ConnectivityMonitor getConnectivityMonitor() throws IOException, CertificateException, InvalidKeyException {
+        if (this.parent != null) {
+            return this.parent.getConnectivityMonitor();
+        }
+
+        ConnectivityMonitor monitor = this.connectivityMonitor;
+
+        if (monitor == null) {
+            getGateway();
+            monitor = this.connectivityMonitor;
+        }
+
+        return monitor;
+    }
+
     private SmartContractPathElements parsePathElements(String smartContractPath) throws InvokeSmartContractFunctionFailure {
         SmartContractPathParser parser = SmartContractPathParser.parse(smartContractPath);
         String[] pathSegments = parser.getSmartContractPathSegments();
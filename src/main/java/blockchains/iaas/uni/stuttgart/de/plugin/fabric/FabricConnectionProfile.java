@@ -12,8 +12,10 @@
 package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
 
 import blockchains.iaas.uni.stuttgart.de.api.connectionprofiles.AbstractConnectionProfile;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventIngestionMode;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HotPathLog;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerAction;
 import com.fasterxml.jackson.annotation.JsonTypeName;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -34,7 +36,6 @@ import static blockchains.iaas.uni.stuttgart.de.plugin.fabric.FabricAdapter.getF
 
 @Setter
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 @Log4j2
 @JsonTypeName("fabric")
@@ -46,27 +47,185 @@ public class FabricConnectionProfile extends AbstractConnectionProfile {
     private static final String PEER_ENDPOINT = PREFIX + "peerEndpoint";
     private static final String OVERRIDE_AUTH = PREFIX + "overrideAuth";
     private static final String RMSC_ADDRESS = PREFIX + "rmscAddress";
+    private static final String RMSC_BATCH_SUPPORTED = PREFIX + "rmscBatchSupported";
+    private static final String HEDGE_PEERS = PREFIX + "hedgePeers";
+    private static final String HEDGE_DELAY_PERCENTILE = PREFIX + "hedgeDelayPercentile";
+    private static final String HEDGE_MIN_DELAY_MILLIS = PREFIX + "hedgeMinDelayMillis";
+    private static final String HEDGE_MAX_DELAY_MILLIS = PREFIX + "hedgeMaxDelayMillis";
+    private static final String HEDGE_BUDGET_RATIO = PREFIX + "hedgeBudgetRatio";
+    private static final String RETRY_MAX_ATTEMPTS = PREFIX + "retryMaxAttempts";
+    private static final String RETRY_INITIAL_BACKOFF_MILLIS = PREFIX + "retryInitialBackoffMillis";
+    private static final String RETRY_MAX_BACKOFF_MILLIS = PREFIX + "retryMaxBackoffMillis";
+    private static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD = PREFIX + "circuitBreakerFailureThreshold";
+    private static final String CIRCUIT_BREAKER_OPEN_MILLIS = PREFIX + "circuitBreakerOpenMillis";
+    private static final String WARMUP_CHANNELS = PREFIX + "warmupChannels";
+    private static final String KEEP_ALIVE_TIME_SECONDS = PREFIX + "keepAliveTimeSeconds";
+    private static final String KEEP_ALIVE_TIMEOUT_SECONDS = PREFIX + "keepAliveTimeoutSeconds";
+    private static final String KEEP_ALIVE_WITHOUT_CALLS = PREFIX + "keepAliveWithoutCalls";
+    private static final String IDLE_TIMEOUT_SECONDS = PREFIX + "idleTimeoutSeconds";
+    private static final String MAX_INBOUND_MESSAGE_SIZE = PREFIX + "maxInboundMessageSize";
+    private static final String MAX_INBOUND_METADATA_SIZE = PREFIX + "maxInboundMetadataSize";
+    private static final String FLOW_CONTROL_WINDOW = PREFIX + "flowControlWindow";
+    private static final String USE_EPOLL = PREFIX + "useEpoll";
+    private static final String SHARED_EVENT_LOOP = PREFIX + "sharedEventLoop";
+    private static final String EVENT_BUFFER_CAPACITY = PREFIX + "eventBufferCapacity";
+    private static final String EVENT_INGESTION_MODE = PREFIX + "eventIngestionMode";
+    private static final String CONNECTIVITY_PING_INTERVAL_MILLIS = PREFIX + "connectivityPingIntervalMillis";
+    private static final String USERNAMES = PREFIX + "usernames";
+    private static final String SLOW_CONSUMER_MAX_QUEUE_DEPTH = PREFIX + "slowConsumerMaxQueueDepth";
+    private static final String SLOW_CONSUMER_MAX_LAG_MILLIS = PREFIX + "slowConsumerMaxLagMillis";
+    private static final String SLOW_CONSUMER_ACTION = PREFIX + "slowConsumerAction";
+    private static final String LOG_HOT_PATH_MAX_PER_SECOND = PREFIX + "logHotPathMaxPerSecond";
+    private static final String LOG_MAX_PAYLOAD_CHARS = PREFIX + "logMaxPayloadChars";
     private String cryptoPath;
     private String mspId;
     private String peerEndpoint;
     private String overrideAuth;
     private String resourceManagerSmartContractAddress;
     private String username;
+    private boolean resourceManagerBatchSupported;
+    /**
+     * Comma-separated peers (endpoint[=overrideAuthority]) to which slow read-only evaluations are hedged. Empty
+     * disables hedging.
+     */
+    private String hedgePeers = "";
+    private double hedgeDelayPercentile = 0.95;
+    private long hedgeMinDelayMillis = 20;
+    private long hedgeMaxDelayMillis = 2000;
+    private double hedgeBudgetRatio = 0.1;
+    private int retryMaxAttempts = 3;
+    private long retryInitialBackoffMillis = 100;
+    private long retryMaxBackoffMillis = 2000;
+    private int circuitBreakerFailureThreshold = 5;
+    private long circuitBreakerOpenMillis = 10_000;
+    /**
+     * Comma-separated channels on which a no-op evaluation is run when the adapter is created. Empty disables the
+     * warm-up.
+     */
+    private String warmupChannels = "";
+    /**
+     * gRPC transport tuning. Non-positive numeric values keep the gRPC defaults.
+     */
+    private long keepAliveTimeSeconds;
+    private long keepAliveTimeoutSeconds = 20;
+    private boolean keepAliveWithoutCalls;
+    private long idleTimeoutSeconds;
+    private int maxInboundMessageSize;
+    private int maxInboundMetadataSize;
+    private int flowControlWindow;
+    private boolean useEpoll;
+    private boolean sharedEventLoop = true;
+    /**
+     * The number of recent chaincode events kept in memory per chaincode. Zero disables the buffer.
+     */
+    private int eventBufferCapacity;
+    /**
+     * CHAINCODE reads one event stream per chaincode; CHANNEL reads one block stream per channel for all chaincodes.
+     */
+    private EventIngestionMode eventIngestionMode = EventIngestionMode.CHAINCODE;
+    /**
+     * The interval of the background round-trip pings to the peers. Zero only tracks the channel state. The pings keep
+     * the channels active, so an interval shorter than idleTimeoutSeconds disables the idle timeout.
+     */
+    private long connectivityPingIntervalMillis;
+    /**
+     * Comma-separated additional users whose gateways are connected over the same channel when the adapter is created.
+     */
+    private String usernames = "";
+    /**
+     * The slow consumer thresholds of event subscriptions. Zero (the default) disables a threshold, so subscriptions
+     * queue events without limit and are never disconnected.
+     */
+    private int slowConsumerMaxQueueDepth;
+    private long slowConsumerMaxLagMillis;
+    /**
+     * What happens to event subscriptions beyond the slow consumer thresholds: SHED, DISCONNECT, or CATCH_UP.
+     */
+    private SlowConsumerAction slowConsumerAction = SlowConsumerAction.DISCONNECT;
+    /**
+     * How many hot path log messages (invocations, events) are written per second and message kind. Zero disables
+     * the limit.
+     */
+    private int logHotPathMaxPerSecond = HotPathLog.DEFAULT_MAX_PER_SECOND;
+    /**
+     * The number of characters of arguments and payloads that are logged. Zero logs them in full.
+     */
+    private int logMaxPayloadChars = HotPathLog.DEFAULT_MAX_PAYLOAD_CHARS;
 
+    /**
+     * Creates a profile with the basic connection settings. All other settings keep their defaults.
+     */
+    public FabricConnectionProfile(String cryptoPath, String mspId, String peerEndpoint, String overrideAuth,
+                                   String resourceManagerSmartContractAddress, String username) {
+        this.cryptoPath = cryptoPath;
+        this.mspId = mspId;
+        this.peerEndpoint = peerEndpoint;
+        this.overrideAuth = overrideAuth;
+        this.resourceManagerSmartContractAddress = resourceManagerSmartContractAddress;
+        this.username = username;
+    }
 
     @Override
     public Properties getAsProperties() {
         final Properties result = super.getAsProperties();
-        result.setProperty(CRYPTO_PATH, this.cryptoPath);
-        result.setProperty(MSP_ID, this.mspId);
-        result.setProperty(PEER_ENDPOINT, this.peerEndpoint);
-        result.setProperty(OVERRIDE_AUTH, this.overrideAuth);
-        result.setProperty(RMSC_ADDRESS, this.resourceManagerSmartContractAddress);
-        result.setProperty(USERNAME, this.username);
+        setPropertyIfNotNull(result, CRYPTO_PATH, this.cryptoPath);
+        setPropertyIfNotNull(result, MSP_ID, this.mspId);
+        setPropertyIfNotNull(result, PEER_ENDPOINT, this.peerEndpoint);
+        setPropertyIfNotNull(result, OVERRIDE_AUTH, this.overrideAuth);
+        setPropertyIfNotNull(result, RMSC_ADDRESS, this.resourceManagerSmartContractAddress);
+        setPropertyIfNotNull(result, USERNAME, this.username);
+        result.setProperty(RMSC_BATCH_SUPPORTED, String.valueOf(this.resourceManagerBatchSupported));
+        setPropertyIfNotNull(result, HEDGE_PEERS, this.hedgePeers);
+        result.setProperty(HEDGE_DELAY_PERCENTILE, String.valueOf(this.hedgeDelayPercentile));
+        result.setProperty(HEDGE_MIN_DELAY_MILLIS, String.valueOf(this.hedgeMinDelayMillis));
+        result.setProperty(HEDGE_MAX_DELAY_MILLIS, String.valueOf(this.hedgeMaxDelayMillis));
+        result.setProperty(HEDGE_BUDGET_RATIO, String.valueOf(this.hedgeBudgetRatio));
+        result.setProperty(RETRY_MAX_ATTEMPTS, String.valueOf(this.retryMaxAttempts));
+        result.setProperty(RETRY_INITIAL_BACKOFF_MILLIS, String.valueOf(this.retryInitialBackoffMillis));
+        result.setProperty(RETRY_MAX_BACKOFF_MILLIS, String.valueOf(this.retryMaxBackoffMillis));
+        result.setProperty(CIRCUIT_BREAKER_FAILURE_THRESHOLD, String.valueOf(this.circuitBreakerFailureThreshold));
+        result.setProperty(CIRCUIT_BREAKER_OPEN_MILLIS, String.valueOf(this.circuitBreakerOpenMillis));
+        setPropertyIfNotNull(result, WARMUP_CHANNELS, this.warmupChannels);
+        result.setProperty(KEEP_ALIVE_TIME_SECONDS, String.valueOf(this.keepAliveTimeSeconds));
+        result.setProperty(KEEP_ALIVE_TIMEOUT_SECONDS, String.valueOf(this.keepAliveTimeoutSeconds));
+        result.setProperty(KEEP_ALIVE_WITHOUT_CALLS, String.valueOf(this.keepAliveWithoutCalls));
+        result.setProperty(IDLE_TIMEOUT_SECONDS, String.valueOf(this.idleTimeoutSeconds));
+        result.setProperty(MAX_INBOUND_MESSAGE_SIZE, String.valueOf(this.maxInboundMessageSize));
+        result.setProperty(MAX_INBOUND_METADATA_SIZE, String.valueOf(this.maxInboundMetadataSize));
+        result.setProperty(FLOW_CONTROL_WINDOW, String.valueOf(this.flowControlWindow));
+        result.setProperty(USE_EPOLL, String.valueOf(this.useEpoll));
+        result.setProperty(SHARED_EVENT_LOOP, String.valueOf(this.sharedEventLoop));
+        result.setProperty(EVENT_BUFFER_CAPACITY, String.valueOf(this.eventBufferCapacity));
+        result.setProperty(EVENT_INGESTION_MODE, this.eventIngestionMode.name());
+        result.setProperty(CONNECTIVITY_PING_INTERVAL_MILLIS, String.valueOf(this.connectivityPingIntervalMillis));
+        setPropertyIfNotNull(result, USERNAMES, this.usernames);
+        result.setProperty(SLOW_CONSUMER_MAX_QUEUE_DEPTH, String.valueOf(this.slowConsumerMaxQueueDepth));
+        result.setProperty(SLOW_CONSUMER_MAX_LAG_MILLIS, String.valueOf(this.slowConsumerMaxLagMillis));
+        result.setProperty(SLOW_CONSUMER_ACTION, this.slowConsumerAction.name());
+        result.setProperty(LOG_HOT_PATH_MAX_PER_SECOND, String.valueOf(this.logHotPathMaxPerSecond));
+        result.setProperty(LOG_MAX_PAYLOAD_CHARS, String.valueOf(this.logMaxPayloadChars));
+
+        return result;
+    }
+
+    /**
+     * @return the properties without the user identities, which are equal for all profiles that can share a connection.
+     */
+    public Properties toSharedConnectionProperties() {
+        Properties result = this.getAsProperties();
+        result.remove(USERNAME);
+        result.remove(USERNAMES);
 
         return result;
     }
 
+    private static void setPropertyIfNotNull(Properties properties, String key, String value) {
+        // Properties do not accept null values
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
     @Override
     public String getIdentity() {
         try {
@@ -94,6 +253,36 @@ public class FabricConnectionProfile extends AbstractConnectionProfile {
             case OVERRIDE_AUTH -> this.overrideAuth;
             case RMSC_ADDRESS -> this.resourceManagerSmartContractAddress;
             case USERNAME -> this.username;
+            case RMSC_BATCH_SUPPORTED -> this.resourceManagerBatchSupported;
+            case HEDGE_PEERS -> this.hedgePeers;
+            case HEDGE_DELAY_PERCENTILE -> this.hedgeDelayPercentile;
+            case HEDGE_MIN_DELAY_MILLIS -> this.hedgeMinDelayMillis;
+            case HEDGE_MAX_DELAY_MILLIS -> this.hedgeMaxDelayMillis;
+            case HEDGE_BUDGET_RATIO -> this.hedgeBudgetRatio;
+            case RETRY_MAX_ATTEMPTS -> this.retryMaxAttempts;
+            case RETRY_INITIAL_BACKOFF_MILLIS -> this.retryInitialBackoffMillis;
+            case RETRY_MAX_BACKOFF_MILLIS -> this.retryMaxBackoffMillis;
+            case CIRCUIT_BREAKER_FAILURE_THRESHOLD -> this.circuitBreakerFailureThreshold;
+            case CIRCUIT_BREAKER_OPEN_MILLIS -> this.circuitBreakerOpenMillis;
+            case WARMUP_CHANNELS -> this.warmupChannels;
+            case KEEP_ALIVE_TIME_SECONDS -> this.keepAliveTimeSeconds;
+            case KEEP_ALIVE_TIMEOUT_SECONDS -> this.keepAliveTimeoutSeconds;
+            case KEEP_ALIVE_WITHOUT_CALLS -> this.keepAliveWithoutCalls;
+            case IDLE_TIMEOUT_SECONDS -> this.idleTimeoutSeconds;
+            case MAX_INBOUND_MESSAGE_SIZE -> this.maxInboundMessageSize;
+            case MAX_INBOUND_METADATA_SIZE -> this.maxInboundMetadataSize;
+            case FLOW_CONTROL_WINDOW -> this.flowControlWindow;
+            case USE_EPOLL -> this.useEpoll;
+            case SHARED_EVENT_LOOP -> this.sharedEventLoop;
+            case EVENT_BUFFER_CAPACITY -> this.eventBufferCapacity;
+            case EVENT_INGESTION_MODE -> this.eventIngestionMode;
+            case CONNECTIVITY_PING_INTERVAL_MILLIS -> this.connectivityPingIntervalMillis;
+            case USERNAMES -> this.usernames;
+            case SLOW_CONSUMER_MAX_QUEUE_DEPTH -> this.slowConsumerMaxQueueDepth;
+            case SLOW_CONSUMER_MAX_LAG_MILLIS -> this.slowConsumerMaxLagMillis;
+            case SLOW_CONSUMER_ACTION -> this.slowConsumerAction;
+            case LOG_HOT_PATH_MAX_PER_SECOND -> this.logHotPathMaxPerSecond;
+            case LOG_MAX_PAYLOAD_CHARS -> this.logMaxPayloadChars;
             default -> super.getAsProperties().get(o);
         };
     }
@@ -115,6 +304,36 @@ public class FabricConnectionProfile extends AbstractConnectionProfile {
                 case OVERRIDE_AUTH -> this.overrideAuth = (String) o1;
                 case RMSC_ADDRESS -> this.resourceManagerSmartContractAddress = (String) o1;
                 case USERNAME -> this.username = (String) o1;
+                case RMSC_BATCH_SUPPORTED -> this.resourceManagerBatchSupported = Boolean.parseBoolean((String) o1);
+                case HEDGE_PEERS -> this.hedgePeers = (String) o1;
+                case HEDGE_DELAY_PERCENTILE -> this.hedgeDelayPercentile = Double.parseDouble((String) o1);
+                case HEDGE_MIN_DELAY_MILLIS -> this.hedgeMinDelayMillis = Long.parseLong((String) o1);
+                case HEDGE_MAX_DELAY_MILLIS -> this.hedgeMaxDelayMillis = Long.parseLong((String) o1);
+                case HEDGE_BUDGET_RATIO -> this.hedgeBudgetRatio = Double.parseDouble((String) o1);
+                case RETRY_MAX_ATTEMPTS -> this.retryMaxAttempts = Integer.parseInt((String) o1);
+                case RETRY_INITIAL_BACKOFF_MILLIS -> this.retryInitialBackoffMillis = Long.parseLong((String) o1);
+                case RETRY_MAX_BACKOFF_MILLIS -> this.retryMaxBackoffMillis = Long.parseLong((String) o1);
+                case CIRCUIT_BREAKER_FAILURE_THRESHOLD -> this.circuitBreakerFailureThreshold = Integer.parseInt((String) o1);
+                case CIRCUIT_BREAKER_OPEN_MILLIS -> this.circuitBreakerOpenMillis = Long.parseLong((String) o1);
+                case WARMUP_CHANNELS -> this.warmupChannels = (String) o1;
+                case KEEP_ALIVE_TIME_SECONDS -> this.keepAliveTimeSeconds = Long.parseLong((String) o1);
+                case KEEP_ALIVE_TIMEOUT_SECONDS -> this.keepAliveTimeoutSeconds = Long.parseLong((String) o1);
+                case KEEP_ALIVE_WITHOUT_CALLS -> this.keepAliveWithoutCalls = Boolean.parseBoolean((String) o1);
+                case IDLE_TIMEOUT_SECONDS -> this.idleTimeoutSeconds = Long.parseLong((String) o1);
+                case MAX_INBOUND_MESSAGE_SIZE -> this.maxInboundMessageSize = Integer.parseInt((String) o1);
+                case MAX_INBOUND_METADATA_SIZE -> this.maxInboundMetadataSize = Integer.parseInt((String) o1);
+                case FLOW_CONTROL_WINDOW -> this.flowControlWindow = Integer.parseInt((String) o1);
+                case USE_EPOLL -> this.useEpoll = Boolean.parseBoolean((String) o1);
+                case SHARED_EVENT_LOOP -> this.sharedEventLoop = Boolean.parseBoolean((String) o1);
+                case EVENT_BUFFER_CAPACITY -> this.eventBufferCapacity = Integer.parseInt((String) o1);
+                case EVENT_INGESTION_MODE -> this.eventIngestionMode = EventIngestionMode.valueOf(((String) o1).trim().toUpperCase());
+                case CONNECTIVITY_PING_INTERVAL_MILLIS -> this.connectivityPingIntervalMillis = Long.parseLong((String) o1);
+                case USERNAMES -> this.usernames = (String) o1;
+                case SLOW_CONSUMER_MAX_QUEUE_DEPTH -> this.slowConsumerMaxQueueDepth = Integer.parseInt((String) o1);
+                case SLOW_CONSUMER_MAX_LAG_MILLIS -> this.slowConsumerMaxLagMillis = Long.parseLong((String) o1);
+                case SLOW_CONSUMER_ACTION -> this.slowConsumerAction = SlowConsumerAction.valueOf(((String) o1).trim().toUpperCase());
+                case LOG_HOT_PATH_MAX_PER_SECOND -> this.logHotPathMaxPerSecond = Integer.parseInt((String) o1);
+                case LOG_MAX_PAYLOAD_CHARS -> this.logMaxPayloadChars = Integer.parseInt((String) o1);
             };
         }
     }
@@ -14,11 +14,53 @@ package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
 
 import blockchains.iaas.uni.stuttgart.de.api.IAdapterExtension;
 import blockchains.iaas.uni.stuttgart.de.api.connectionprofiles.AbstractConnectionProfile;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.GrpcTransport;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.GrpcTransportSettings;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HedgingPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.HotPathLog;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RetryPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import lombok.extern.log4j.Log4j2;
 import org.pf4j.Extension;
 import org.pf4j.Plugin;
 import org.pf4j.PluginWrapper;
 
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Log4j2
 public class FabricPlugin extends Plugin {
+    /**
+     * Classes on the invocation path that are expensive to load and initialize on the first request.
+     */
+    private static final String[] WARM_UP_CLASSES = {
+            "org.hyperledger.fabric.client.Gateway",
+            "org.hyperledger.fabric.client.identity.Identities",
+            "org.hyperledger.fabric.client.identity.Signers",
+            "org.hyperledger.fabric.protos.gateway.GatewayGrpc",
+            "org.hyperledger.fabric.protos.common.BlockchainInfo",
+            "io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder",
+            "io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder",
+            "com.google.gson.JsonParser"
+    };
+    /**
+     * The adapters created so far, by the connection they stand for (see {@link #getConnectionKey}). There is one adapter
+     * per connection, so an adapter is replaced (and closed) when the settings of its connection change.
+     */
+    private static final Map<String, CachedAdapter> ADAPTERS = new ConcurrentHashMap<>();
+    /**
+     * The system property that enables the warm-up on plugin start when set to true. It is off by default, since it
+     * delays the start of the plugin, which is only worth it when the first requests are latency-sensitive.
+     */
+    private static final String WARM_UP_PROPERTY = "fabric.plugin.warmup";
+
     /**
      * Constructor to be used by plugin manager for plugin instantiation.
      * Your plugins have to provide constructor with this exact signature to
@@ -33,13 +75,159 @@ public class FabricPlugin extends Plugin {
     @Override
     public void start() {
         super.start();
+
+        if (Boolean.parseBoolean(System.getProperty(WARM_UP_PROPERTY, "false"))) {
+            warmUp();
+        }
     }
 
     @Override
     public void stop() {
+        closeAdapters();
+        GrpcTransport.shutdown();
         super.stop();
     }
 
+    /**
+     * Loads the classes of the invocation path and exercises the ECDSA signing code, so that the first request does not
+     * pay for class loading and cold crypto providers.
+     */
+    private static void warmUp() {
+        long start = System.currentTimeMillis();
+        ClassLoader classLoader = FabricPlugin.class.getClassLoader();
+
+        for (String className : WARM_UP_CLASSES) {
+            try {
+                Class.forName(className, true, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.debug("Could not preload class {}. Ignoring...", className);
+            }
+        }
+
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            Signature signature = Signature.getInstance("SHA256withECDSA");
+            signature.initSign(generator.generateKeyPair().getPrivate());
+            signature.update("warm-up".getBytes(StandardCharsets.UTF_8));
+            signature.sign();
+        } catch (Exception e) {
+            log.debug("Could not warm up the signing code. Ignoring...", e);
+        }
+
+        log.info("Fabric plugin warmed up in {} ms.", System.currentTimeMillis() - start);
+    }
+
+    private static FabricAdapter createAdapter(FabricConnectionProfile fabricConnectionProfile) {
+        FabricAdapter adapter = new FabricAdapter(
+                fabricConnectionProfile.getUsername(),
+                fabricConnectionProfile.getCryptoPath(),
+                fabricConnectionProfile.getMspId(),
+                fabricConnectionProfile.getPeerEndpoint(),
+                fabricConnectionProfile.getOverrideAuth(),
+                fabricConnectionProfile.getResourceManagerSmartContractAddress());
+        adapter.setTransportSettings(GrpcTransportSettings
+                .builder()
+                .keepAliveTimeSeconds(fabricConnectionProfile.getKeepAliveTimeSeconds())
+                .keepAliveTimeoutSeconds(fabricConnectionProfile.getKeepAliveTimeoutSeconds())
+                .keepAliveWithoutCalls(fabricConnectionProfile.isKeepAliveWithoutCalls())
+                .idleTimeoutSeconds(fabricConnectionProfile.getIdleTimeoutSeconds())
+                .maxInboundMessageSize(fabricConnectionProfile.getMaxInboundMessageSize())
+                .maxInboundMetadataSize(fabricConnectionProfile.getMaxInboundMetadataSize())
+                .flowControlWindow(fabricConnectionProfile.getFlowControlWindow())
+                .useEpoll(fabricConnectionProfile.isUseEpoll())
+                .sharedEventLoop(fabricConnectionProfile.isSharedEventLoop())
+                .build());
+        adapter.setResourceManagerBatchSupported(fabricConnectionProfile.isResourceManagerBatchSupported());
+        adapter.setEventBufferCapacity(fabricConnectionProfile.getEventBufferCapacity());
+        adapter.setEventIngestionMode(fabricConnectionProfile.getEventIngestionMode());
+        adapter.setSlowConsumerPolicy(SlowConsumerPolicy
+                .builder()
+                .maxQueueDepth(fabricConnectionProfile.getSlowConsumerMaxQueueDepth())
+                .maxLagMillis(fabricConnectionProfile.getSlowConsumerMaxLagMillis())
+                .action(fabricConnectionProfile.getSlowConsumerAction())
+                .build());
+        adapter.setConnectivityPingIntervalMillis(fabricConnectionProfile.getConnectivityPingIntervalMillis());
+        adapter.setHotPathLog(new HotPathLog(fabricConnectionProfile.getLogHotPathMaxPerSecond(),
+                fabricConnectionProfile.getLogMaxPayloadChars()));
+        adapter.setRetryPolicy(RetryPolicy
+                .builder()
+                .maxAttempts(fabricConnectionProfile.getRetryMaxAttempts())
+                .initialBackoffMillis(fabricConnectionProfile.getRetryInitialBackoffMillis())
+                .maxBackoffMillis(fabricConnectionProfile.getRetryMaxBackoffMillis())
+                .build());
+        adapter.configureCircuitBreakers(fabricConnectionProfile.getCircuitBreakerFailureThreshold(),
+                fabricConnectionProfile.getCircuitBreakerOpenMillis());
+
+        if (fabricConnectionProfile.getHedgePeers() != null && !fabricConnectionProfile.getHedgePeers().isBlank()) {
+            HedgingPolicy policy = HedgingPolicy
+                    .builder()
+                    .delayPercentile(fabricConnectionProfile.getHedgeDelayPercentile())
+                    .minDelayMillis(fabricConnectionProfile.getHedgeMinDelayMillis())
+                    .maxDelayMillis(fabricConnectionProfile.getHedgeMaxDelayMillis())
+                    .budgetRatio(fabricConnectionProfile.getHedgeBudgetRatio())
+                    .build();
+            adapter.enableHedging(policy, List.of(fabricConnectionProfile.getHedgePeers().split(",")));
+        }
+
+        splitList(fabricConnectionProfile.getUsernames()).forEach(adapter::forIdentity);
+
+        return adapter;
+    }
+
+    /**
+     * Connects the adapter and the adapters of the other identities of the connection profile, if the profile has
+     * warm-up channels.
+     */
+    private static void warmUp(FabricAdapter adapter, FabricConnectionProfile fabricConnectionProfile) {
+        List<String> channels = splitList(fabricConnectionProfile.getWarmupChannels());
+
+        if (channels.isEmpty()) {
+            return;
+        }
+
+        adapter.warmUp(channels);
+        splitList(fabricConnectionProfile.getUsernames()).forEach(username -> adapter.forIdentity(username).warmUp(channels));
+    }
+
+    static void closeAdapters() {
+        // closing an adapter also closes the adapters of its other identities.
+        ADAPTERS.values().forEach(cached -> cached.adapter.close());
+        ADAPTERS.clear();
+    }
+
+    /**
+     * @return the identity of the connection of a profile: the peer and the organization it is accessed as.
+     */
+    static String getConnectionKey(FabricConnectionProfile fabricConnectionProfile) {
+        return String.join("|", fabricConnectionProfile.getPeerEndpoint(), fabricConnectionProfile.getOverrideAuth(),
+                fabricConnectionProfile.getMspId(), fabricConnectionProfile.getCryptoPath());
+    }
+
+    private static List<String> splitList(String list) {
+        if (list == null) {
+            return List.of();
+        }
+
+        return Stream.of(list.split(","))
+                .map(String::trim)
+                .filter(element -> !element.isEmpty())
+                .toList();
+    }
+
+    private static class CachedAdapter {
+        /**
+         * The shared connection properties of the profile the adapter was created from.
+         */
+        private final Properties settings;
+        private final FabricAdapter adapter;
+
+        private CachedAdapter(Properties settings, FabricAdapter adapter) {
+            this.settings = settings;
+            this.adapter = adapter;
+        }
+    }
+
     @Extension
     public static class FabricAdapterImpl implements IAdapterExtension {
 
@@ -48,14 +236,40 @@ public class FabricPlugin extends Plugin {
             assert connectionProfile instanceof FabricConnectionProfile;
             FabricConnectionProfile fabricConnectionProfile = (FabricConnectionProfile) connectionProfile;
 
-            return new FabricAdapter(
-                    fabricConnectionProfile.getUsername(),
-                    fabricConnectionProfile.getCryptoPath(),
-                    fabricConnectionProfile.getMspId(),
-                    fabricConnectionProfile.getPeerEndpoint(),
-                    fabricConnectionProfile.getOverrideAuth(),
-                    fabricConnectionProfile.getResourceManagerSmartContractAddress());
+            // adapters hold long-lived connections, so they are reused for connection profiles that only differ in the
+            // user, which gets its own gateway over the shared connection.
+            String key = getConnectionKey(fabricConnectionProfile);
+            Properties settings = fabricConnectionProfile.toSharedConnectionProperties();
+
+            while (true) {
+                CachedAdapter cached = ADAPTERS.get(key);
+
+                if (cached != null && cached.settings.equals(settings)) {
+                    return cached.adapter.forIdentity(fabricConnectionProfile.getUsername());
+                }
+
+                // creating an adapter does not connect it, so a losing adapter is cheap to discard. The warm-up does
+                // network I/O, so it runs outside the map to not block the other profiles.
+                CachedAdapter created = new CachedAdapter(settings, createAdapter(fabricConnectionProfile));
+                boolean stored = cached == null ?
+                        ADAPTERS.putIfAbsent(key, created) == null :
+                        ADAPTERS.replace(key, cached, created);
+
+                if (!stored) {
+                    created.adapter.close();
+                    continue;
+                }
+
+                if (cached != null) {
+                    log.info("The settings of the connection to {} changed. Replacing its adapter...",
+                            fabricConnectionProfile.getPeerEndpoint());
+                    cached.adapter.close();
+                }
+
+                warmUp(created.adapter, fabricConnectionProfile);
 
+                return created.adapter.forIdentity(fabricConnectionProfile.getUsername());
+            }
         }
 
         @Override
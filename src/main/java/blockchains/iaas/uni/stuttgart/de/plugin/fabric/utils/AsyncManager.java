@@ -26,6 +26,21 @@ public class AsyncManager {
         return executor;
     }
 
+    /**
+     * Creates an executor service with a fixed number of threads, which queues the tasks submitted while all threads are
+     * busy.
+     *
+     * @param threads the number of threads.
+     * @return the executor service.
+     */
+    public static ExecutorService createExecutorService(int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            shutdown(executor);
+        }));
+        return executor;
+    }
+
     private static void shutdown(ExecutorService executorService) {
         executorService.shutdown();
 
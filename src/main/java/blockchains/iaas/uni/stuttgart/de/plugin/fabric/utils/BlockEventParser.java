@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts the chaincode events of valid transactions from full blocks.
+ */
+@Log4j2
+public class BlockEventParser {
+    private BlockEventParser() {
+    }
+
+    /**
+     * Extracts the chaincode events of the valid transactions of a block.
+     *
+     * @param block      the block.
+     * @param chaincodes only the events of these chaincodes are extracted (their payloads are only copied for them).
+     * @return the events in the order of the transactions in the block.
+     */
+    public static List<ChaincodeEvent> getChaincodeEvents(Block block, Set<String> chaincodes) {
+        List<ChaincodeEvent> result = new ArrayList<>();
+        long blockNumber = block.getHeader().getNumber();
+        ByteString validationCodes = block.getMetadata().getMetadataCount() > BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE ?
+                block.getMetadata().getMetadata(BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE) :
+                ByteString.EMPTY;
+
+        for (int i = 0; i < block.getData().getDataCount(); i++) {
+            if (i < validationCodes.size() && validationCodes.byteAt(i) != TxValidationCode.VALID_VALUE) {
+                continue;
+            }
+
+            try {
+                Envelope envelope = Envelope.parseFrom(block.getData().getData(i));
+                Payload payload = Payload.parseFrom(envelope.getPayload());
+                ChannelHeader channelHeader = ChannelHeader.parseFrom(payload.getHeader().getChannelHeader());
+
+                if (channelHeader.getType() != HeaderType.ENDORSER_TRANSACTION_VALUE) {
+                    continue;
+                }
+
+                Transaction transaction = Transaction.parseFrom(payload.getData());
+
+                for (TransactionAction action : transaction.getActionsList()) {
+                    ChaincodeActionPayload actionPayload = ChaincodeActionPayload.parseFrom(action.getPayload());
+                    ProposalResponsePayload responsePayload = ProposalResponsePayload
+                            .parseFrom(actionPayload.getAction().getProposalResponsePayload());
+                    ChaincodeAction chaincodeAction = ChaincodeAction.parseFrom(responsePayload.getExtension());
+
+                    if (chaincodeAction.getEvents().isEmpty()) {
+                        continue;
+                    }
+
+                    var event = org.hyperledger.fabric.protos.peer.ChaincodeEvent.parseFrom(chaincodeAction.getEvents());
+
+                    if (!event.getEventName().isEmpty() && chaincodes.contains(event.getChaincodeId())) {
+                        result.add(new BlockChaincodeEvent(blockNumber, channelHeader.getTxId(), event.getChaincodeId(),
+                                event.getEventName(), event.getPayload().toByteArray()));
+                    }
+                }
+            } catch (InvalidProtocolBufferException e) {
+                log.warn("Failed to parse transaction {} of block {}. Skipping...", i, blockNumber, e);
+            }
+        }
+
+        return result;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    private static class BlockChaincodeEvent implements ChaincodeEvent {
+        private final long blockNumber;
+        private final String transactionId;
+        private final String chaincodeName;
+        private final String eventName;
+        @ToString.Exclude
+        private final byte[] payload;
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import blockchains.iaas.uni.stuttgart.de.api.exceptions.BlockchainNodeUnreachableException;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A circuit breaker guarding the calls to a single peer. After a number of consecutive transient failures, the breaker
+ * opens and calls fail fast. Once the open period elapses, a single probe call is let through (half-open): if it
+ * succeeds the breaker closes, otherwise it opens again. Calls cancelled by the client (e.g., the losing call of a hedged
+ * evaluation) are neutral: they neither close nor open the breaker.
+ */
+@Log4j2
+public class CircuitBreaker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 10_000;
+    private static final Map<String, CircuitBreaker> PEER_BREAKERS = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private enum Permission {
+        DENIED,
+        CALL,
+        PROBE
+    }
+
+    @Getter
+    private final String peer;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String peer, int failureThreshold, long openMillis) {
+        this.peer = peer;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Gets the breaker shared by all adapters talking to the given peer with the default settings.
+     *
+     * @param peer the peer endpoint.
+     * @return the circuit breaker of the peer.
+     */
+    public static CircuitBreaker forPeer(String peer) {
+        return forPeer(peer, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    /**
+     * Gets the breaker shared by all adapters talking to the given peer with the given settings. Adapters that configure
+     * different settings for the same peer get different breakers, so none of them changes the behavior of the others.
+     *
+     * @param peer             the peer endpoint.
+     * @param failureThreshold the number of consecutive transient failures that open the breaker.
+     * @param openMillis       how long the breaker stays open before letting a probe through.
+     * @return the circuit breaker of the peer.
+     */
+    public static CircuitBreaker forPeer(String peer, int failureThreshold, long openMillis) {
+        return PEER_BREAKERS.computeIfAbsent(peer + "|" + failureThreshold + "|" + openMillis,
+                key -> new CircuitBreaker(peer, failureThreshold, openMillis));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Checks whether a call would currently be let through without changing the state of the breaker.
+     *
+     * @return false if the breaker is open and the open period did not elapse yet.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.currentTimeMillis() - openedAt >= openMillis;
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+
+    /**
+     * Executes a call through the breaker, recording its outcome.
+     *
+     * @param call the call to execute.
+     * @param <T>  the type of the result.
+     * @return the result of the call.
+     * @throws BlockchainNodeUnreachableException if the breaker is open.
+     * @throws Exception                          the failure of the call.
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        final Permission permission = tryAcquirePermission();
+
+        if (permission == Permission.DENIED) {
+            throw new BlockchainNodeUnreachableException(String.format("The circuit breaker of peer %s is open.", peer));
+        }
+
+        try {
+            T result = call.call();
+            onSuccess();
+
+            return result;
+        } catch (Exception e) {
+            if (RetryPolicy.isTransient(e)) {
+                onFailure();
+            } else if (!RetryPolicy.isCancelled(e)) {
+                // the peer did answer, so it is healthy.
+                onSuccess();
+            }
+
+            throw e;
+        } finally {
+            // a probe that ended without an outcome (cancelled, or an Error) lets the next call probe.
+            if (permission == Permission.PROBE) {
+                releaseProbe();
+            }
+        }
+    }
+
+    private synchronized Permission tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return Permission.CALL;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return Permission.DENIED;
+                }
+
+                log.info("Probing peer {} (circuit half-open).", peer);
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+
+                return Permission.PROBE;
+            default:
+                if (probeInFlight) {
+                    return Permission.DENIED;
+                }
+
+                probeInFlight = true;
+
+                return Permission.PROBE;
+        }
+    }
+
+    private synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Peer {} recovered (circuit closed).", peer);
+        }
+
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Peer {} is unhealthy after {} consecutive failures (circuit open).", peer, consecutiveFailures);
+            }
+
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.CallOptions;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the connectivity of a long-lived gRPC channel in the background, so that health checks can be answered from
+ * cached state without opening connections. The state is followed through
+ * {@link ManagedChannel#notifyWhenStateChanged(ConnectivityState, Runnable)} and the round-trip time is measured with
+ * periodic calls of the standard gRPC health check. A peer that does not implement the health service still answers
+ * with UNIMPLEMENTED, which proves that it is reachable. Note that the pings are calls on the channel, so an interval
+ * shorter than the idle timeout of the channel keeps it from ever going idle.
+ */
+@Log4j2
+public class ConnectivityMonitor {
+    private static final String PING_METHOD_NAME = "grpc.health.v1.Health/Check";
+    private static final long PING_TIMEOUT_MILLIS = 2000;
+    private static final MethodDescriptor.Marshaller<byte[]> BYTES_MARSHALLER = new MethodDescriptor.Marshaller<>() {
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+    private static final MethodDescriptor<byte[], byte[]> PING_METHOD = MethodDescriptor.<byte[], byte[]>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(PING_METHOD_NAME)
+            .setRequestMarshaller(BYTES_MARSHALLER)
+            .setResponseMarshaller(BYTES_MARSHALLER)
+            .build();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fabric-connectivity-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ManagedChannel channel;
+    @Getter
+    private final String target;
+    private volatile boolean closed;
+    private final Object settledLock = new Object();
+    private ScheduledFuture<?> pingTask;
+    @Getter
+    private volatile ConnectivityState state;
+    @Getter
+    private volatile long lastStateChangeMillis;
+    /**
+     * The round-trip time of the last successful ping, or -1 if no ping succeeded yet.
+     */
+    @Getter
+    private volatile long lastRttMillis = -1;
+    @Getter
+    private volatile long lastPingMillis;
+    @Getter
+    private volatile boolean lastPingSucceeded;
+
+    /**
+     * @param channel            the channel to monitor.
+     * @param pingIntervalMillis the interval of the round-trip pings, or zero to only track the channel state. Pings
+     *                           keep the channel active, so they disable its idle timeout if they are more frequent.
+     */
+    public ConnectivityMonitor(ManagedChannel channel, long pingIntervalMillis) {
+        this.channel = channel;
+        this.target = channel.authority();
+        this.state = channel.getState(true);
+        this.lastStateChangeMillis = System.currentTimeMillis();
+        this.watchState(this.state);
+
+        if (pingIntervalMillis > 0) {
+            this.pingTask = SCHEDULER.scheduleWithFixedDelay(this::ping, 0, pingIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * An idle channel is asked to reconnect, so that a later check finds it connected.
+     *
+     * @return true if the channel is connected, or idle while the last ping reached the peer.
+     */
+    public boolean isReady() {
+        ConnectivityState current = this.state;
+
+        if (current == ConnectivityState.IDLE) {
+            current = this.channel.getState(true);
+        }
+
+        return current == ConnectivityState.READY || (current == ConnectivityState.IDLE && this.lastPingSucceeded);
+    }
+
+    /**
+     * Waits until the channel settled, i.e., it is READY, TRANSIENT_FAILURE or SHUTDOWN. An idle channel does not
+     * connect by itself, so it is asked to reconnect first.
+     *
+     * @param timeoutMillis the maximum time to wait.
+     * @return the current state of the channel.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public ConnectivityState awaitSettledState(long timeoutMillis) throws InterruptedException {
+        if (this.state == ConnectivityState.IDLE) {
+            this.channel.getState(true);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        synchronized (this.settledLock) {
+            while (!this.closed && !isSettled(this.state)) {
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    break;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this.settledLock, remaining);
+            }
+        }
+
+        return this.state;
+    }
+
+    public void close() {
+        this.closed = true;
+        this.onStateChanged();
+
+        if (this.pingTask != null) {
+            this.pingTask.cancel(false);
+        }
+    }
+
+    private void watchState(ConnectivityState source) {
+        if (this.closed || source == ConnectivityState.SHUTDOWN) {
+            return;
+        }
+
+        this.channel.notifyWhenStateChanged(source, () -> {
+            ConnectivityState current = this.channel.getState(false);
+            log.debug("The connection to {} changed from {} to {}.", this.target, source, current);
+            this.state = current;
+            this.lastStateChangeMillis = System.currentTimeMillis();
+            this.onStateChanged();
+            this.watchState(current);
+        });
+    }
+
+    private void onStateChanged() {
+        synchronized (this.settledLock) {
+            this.settledLock.notifyAll();
+        }
+    }
+
+    private static boolean isSettled(ConnectivityState state) {
+        return state != ConnectivityState.IDLE && state != ConnectivityState.CONNECTING;
+    }
+
+    private void ping() {
+        if (this.closed) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        CallOptions options = CallOptions.DEFAULT.withDeadlineAfter(PING_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        try {
+            ClientCalls.asyncUnaryCall(this.channel.newCall(PING_METHOD, options), new byte[0], new StreamObserver<>() {
+                @Override
+                public void onNext(byte[] value) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    pinged(start, Status.fromThrowable(t).getCode() == Status.Code.UNIMPLEMENTED);
+                }
+
+                @Override
+                public void onCompleted() {
+                    pinged(start, true);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("Failed to ping {}.", this.target, e);
+            this.pinged(start, false);
+        }
+    }
+
+    private void pinged(long startNanos, boolean reachable) {
+        this.lastPingMillis = System.currentTimeMillis();
+        this.lastPingSucceeded = reachable;
+
+        if (reachable) {
+            this.lastRttMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
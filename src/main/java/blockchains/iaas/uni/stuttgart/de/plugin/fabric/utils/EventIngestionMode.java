@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+/**
+ * How chaincode events are read from the peer.
+ */
+public enum EventIngestionMode {
+    /**
+     * One chaincode event stream per watched chaincode.
+     */
+    CHAINCODE,
+    /**
+     * One block event stream per channel, from which the events of all watched chaincodes of the channel are extracted.
+     * Requires the client identity to be allowed to receive full blocks.
+     */
+    CHANNEL
+}
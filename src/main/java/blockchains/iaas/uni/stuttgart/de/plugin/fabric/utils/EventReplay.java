@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Asks a new event subscription to first replay recent events from memory. If both limits are given, the block limit
+ * takes precedence.
+ */
+@Getter
+@Builder
+@ToString
+public class EventReplay {
+    /**
+     * Replay the events of the last n blocks (counted back from the most recent buffered event).
+     */
+    private final int lastBlocks;
+    /**
+     * Replay the events received during the last given milliseconds.
+     */
+    private final long lastMillis;
+
+    public static EventReplay lastBlocks(int blocks) {
+        return EventReplay.builder().lastBlocks(blocks).build();
+    }
+
+    public static EventReplay lastMillis(long millis) {
+        return EventReplay.builder().lastMillis(millis).build();
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.ChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the gRPC channels of the plugin and owns the event-loop groups and the executor they share.
+ */
+@Log4j2
+public class GrpcTransport {
+    private static final AtomicBoolean EPOLL_UNAVAILABILITY_LOGGED = new AtomicBoolean();
+    private static EventLoopGroup nioEventLoopGroup;
+    private static EventLoopGroup epollEventLoopGroup;
+    private static ExecutorService executor;
+
+    private GrpcTransport() {
+    }
+
+    /**
+     * Creates a channel to a peer.
+     *
+     * @param endpoint    the address of the peer.
+     * @param authority   the authority to use instead of the endpoint host for TLS verification (may be null).
+     * @param credentials the channel credentials.
+     * @param settings    the transport tuning options.
+     * @return the new channel.
+     */
+    public static ManagedChannel newChannel(String endpoint, String authority, ChannelCredentials credentials,
+                                            GrpcTransportSettings settings) {
+        NettyChannelBuilder builder = NettyChannelBuilder.forTarget(endpoint, credentials);
+
+        if (authority != null && !authority.isEmpty()) {
+            builder.overrideAuthority(authority);
+        }
+
+        if (settings.getKeepAliveTimeSeconds() > 0) {
+            builder.keepAliveTime(settings.getKeepAliveTimeSeconds(), TimeUnit.SECONDS)
+                    .keepAliveTimeout(settings.getKeepAliveTimeoutSeconds(), TimeUnit.SECONDS)
+                    .keepAliveWithoutCalls(settings.isKeepAliveWithoutCalls());
+        }
+
+        if (settings.getIdleTimeoutSeconds() > 0) {
+            builder.idleTimeout(settings.getIdleTimeoutSeconds(), TimeUnit.SECONDS);
+        }
+
+        if (settings.getMaxInboundMessageSize() > 0) {
+            builder.maxInboundMessageSize(settings.getMaxInboundMessageSize());
+        }
+
+        if (settings.getMaxInboundMetadataSize() > 0) {
+            builder.maxInboundMetadataSize(settings.getMaxInboundMetadataSize());
+        }
+
+        if (settings.getFlowControlWindow() > 0) {
+            builder.flowControlWindow(settings.getFlowControlWindow());
+        }
+
+        boolean useEpoll = settings.isUseEpoll() && isEpollAvailable();
+
+        if (settings.isSharedEventLoop()) {
+            builder.eventLoopGroup(getEventLoopGroup(useEpoll))
+                    .channelType(useEpoll ? EpollSocketChannel.class : NioSocketChannel.class)
+                    .executor(getExecutor());
+        } else if (useEpoll) {
+            // a dedicated group is needed to select the epoll transport, so it is still shared among epoll channels.
+            builder.eventLoopGroup(getEventLoopGroup(true))
+                    .channelType(EpollSocketChannel.class);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Releases the shared event-loop groups and executor. Must only be called once all channels are shut down.
+     */
+    public static synchronized void shutdown() {
+        if (nioEventLoopGroup != null) {
+            nioEventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+            nioEventLoopGroup = null;
+        }
+
+        if (epollEventLoopGroup != null) {
+            epollEventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+            epollEventLoopGroup = null;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static boolean isEpollAvailable() {
+        if (!Epoll.isAvailable()) {
+            // the cause does not change, so it is only logged for the first channel.
+            if (!EPOLL_UNAVAILABILITY_LOGGED.getAndSet(true)) {
+                log.warn("The epoll transport is not available. Falling back to NIO.", Epoll.unavailabilityCause());
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private static synchronized EventLoopGroup getEventLoopGroup(boolean useEpoll) {
+        if (useEpoll) {
+            if (epollEventLoopGroup == null) {
+                epollEventLoopGroup = new EpollEventLoopGroup(0, new DefaultThreadFactory("fabric-grpc-epoll", true));
+            }
+
+            return epollEventLoopGroup;
+        }
+
+        if (nioEventLoopGroup == null) {
+            nioEventLoopGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("fabric-grpc-nio", true));
+        }
+
+        return nioEventLoopGroup;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(new DefaultThreadFactory("fabric-grpc-executor", true));
+        }
+
+        return executor;
+    }
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Tuning options of the gRPC channels to the peers. Non-positive numeric values keep the gRPC defaults.
+ */
+@Getter
+@Builder
+@ToString
+public class GrpcTransportSettings {
+    /**
+     * The time without reads after which a keepalive ping is sent. Keeps idle connections from being dropped by load
+     * balancers and firewalls.
+     */
+    private final long keepAliveTimeSeconds;
+    @Builder.Default
+    private final long keepAliveTimeoutSeconds = 20;
+    private final boolean keepAliveWithoutCalls;
+    /**
+     * The time without calls after which the channel releases its connection.
+     */
+    private final long idleTimeoutSeconds;
+    private final int maxInboundMessageSize;
+    private final int maxInboundMetadataSize;
+    /**
+     * The HTTP/2 flow-control window in bytes. Larger windows speed up large evaluation results and busy event streams.
+     */
+    private final int flowControlWindow;
+    /**
+     * Whether to use the native epoll transport (Linux only). Falls back to NIO when epoll is not available.
+     */
+    private final boolean useEpoll;
+    /**
+     * Whether all channels of the plugin share one event-loop group and one executor.
+     */
+    @Builder.Default
+    private final boolean sharedEventLoop = true;
+
+    public static GrpcTransportSettings defaults() {
+        return GrpcTransportSettings.builder().build();
+    }
+}
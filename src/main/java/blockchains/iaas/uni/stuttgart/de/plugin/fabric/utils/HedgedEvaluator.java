@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.Context;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates read-only transactions with hedging: if the primary peer does not respond within a delay derived from the
+ * recently observed latencies, the same evaluation is sent to a second peer. The first successful response wins and the
+ * other call is cancelled.
+ */
+@Log4j2
+public class HedgedEvaluator implements AutoCloseable {
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int DELAY_RECOMPUTE_INTERVAL = 64;
+    private static final double MAX_BUDGET_TOKENS = 10.0;
+
+    @Getter
+    private final HedgingPolicy policy;
+    private final ExecutorService executorService = AsyncManager.createExecutorService();
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyIndex;
+    private volatile long delayMillis;
+    private double budgetTokens;
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesDeniedByBudget = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    public HedgedEvaluator(HedgingPolicy policy) {
+        this.policy = policy;
+        this.delayMillis = policy.getMinDelayMillis();
+        this.budgetTokens = MAX_BUDGET_TOKENS;
+    }
+
+    /**
+     * Evaluates a transaction function, hedging the call to a second peer if the primary peer is slow.
+     *
+     * @param primary  evaluates the transaction function on the primary peer.
+     * @param hedge    supplies the evaluation on a hedge peer. Only called when a hedge is actually sent.
+     * @param function the name of the transaction function.
+     * @return the result of the first successful evaluation.
+     * @throws Exception the failure of the evaluation(s).
+     */
+    public byte[] evaluate(Callable<byte[]> primary, Supplier<Callable<byte[]>> hedge, String function) throws Exception {
+        inFlight.incrementAndGet();
+
+        try {
+            if (closed) {
+                // the threads may already be released.
+                return primary.call();
+            }
+
+            return doEvaluate(primary, hedge, function);
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && closed) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    private byte[] doEvaluate(Callable<byte[]> primary, Supplier<Callable<byte[]>> hedge, String function) throws Exception {
+        evaluations.incrementAndGet();
+        depositBudget();
+        final long start = System.nanoTime();
+        Context.CancellableContext primaryContext = Context.current().withCancellation();
+        Context.CancellableContext hedgeContext = null;
+
+        // both contexts are cancelled on every path, so that neither the losing call nor a call abandoned because of a
+        // failure or an interruption keeps running on the wire.
+        try {
+            CompletableFuture<byte[]> primaryCall = start(primaryContext, primary);
+
+            try {
+                byte[] result = primaryCall.get(delayMillis, TimeUnit.MILLISECONDS);
+                recordLatency(System.nanoTime() - start);
+
+                return result;
+            } catch (TimeoutException e) {
+                // the primary peer is slower than usual: hedge if the budget allows it.
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+
+            if (!withdrawBudget()) {
+                hedgesDeniedByBudget.incrementAndGet();
+
+                return awaitAndRecord(primaryCall, start);
+            }
+
+            hedgesFired.incrementAndGet();
+            hedgeContext = Context.current().withCancellation();
+            CompletableFuture<byte[]> hedgeCall;
+
+            try {
+                hedgeCall = start(hedgeContext, hedge.get());
+            } catch (RuntimeException e) {
+                log.warn("Failed to send hedged evaluation of {}. Waiting for the primary peer.", function, e);
+
+                return awaitAndRecord(primaryCall, start);
+            }
+
+            CompletableFuture<byte[]> winner = firstSuccessful(primaryCall, hedgeCall);
+            byte[] result = awaitAndRecord(winner, start);
+
+            if (hedgeCall.isDone() && !hedgeCall.isCompletedExceptionally() && hedgeCall.getNow(null) == result) {
+                hedgesWon.incrementAndGet();
+            }
+
+            return result;
+        } finally {
+            primaryContext.cancel(null);
+
+            if (hedgeContext != null) {
+                hedgeContext.cancel(null);
+            }
+        }
+    }
+
+    public HedgingMetrics getMetrics() {
+        return HedgingMetrics
+                .builder()
+                .evaluations(evaluations.get())
+                .hedgesFired(hedgesFired.get())
+                .hedgesWon(hedgesWon.get())
+                .hedgesDeniedByBudget(hedgesDeniedByBudget.get())
+                .currentDelayMillis(delayMillis)
+                .build();
+    }
+
+    /**
+     * Stops hedging. Evaluations that are in flight complete normally, and the threads are released after the last of
+     * them. Evaluations started afterward (e.g., by a caller that read this evaluator before it was replaced) run on
+     * the calling thread without hedging.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        if (inFlight.get() == 0) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<byte[]> start(Context.CancellableContext context, Callable<byte[]> evaluation) {
+        CompletableFuture<byte[]> call = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                // calls made within the context are cancelled on the wire when the context is cancelled.
+                call.complete(context.call(evaluation));
+            } catch (Exception e) {
+                call.completeExceptionally(e);
+            }
+        };
+
+        try {
+            executorService.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the evaluator was closed.
+            task.run();
+        }
+
+        return call;
+    }
+
+    private byte[] awaitAndRecord(CompletableFuture<byte[]> call, long start) throws Exception {
+        try {
+            byte[] result = call.get();
+            recordLatency(System.nanoTime() - start);
+
+            return result;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static CompletableFuture<byte[]> firstSuccessful(CompletableFuture<byte[]> first, CompletableFuture<byte[]> second) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<byte[], Throwable> handler = (value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            }
+        };
+        first.whenComplete(handler);
+        second.whenComplete(handler);
+
+        return result;
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+
+    synchronized void recordLatency(long latencyNanos) {
+        latencies[latencyIndex] = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+
+        if (latencyCount >= DELAY_RECOMPUTE_INTERVAL && latencyIndex % DELAY_RECOMPUTE_INTERVAL == 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(policy.getDelayPercentile() * sorted.length) - 1);
+            long percentile = sorted[Math.max(0, index)];
+            delayMillis = Math.max(policy.getMinDelayMillis(), Math.min(policy.getMaxDelayMillis(), percentile));
+        }
+    }
+
+    private synchronized void depositBudget() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + policy.getBudgetRatio());
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budgetTokens < 1.0) {
+            return false;
+        }
+
+        budgetTokens -= 1.0;
+
+        return true;
+    }
+}
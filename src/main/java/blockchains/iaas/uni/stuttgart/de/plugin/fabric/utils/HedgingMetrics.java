@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A snapshot of the counters of a {@link HedgedEvaluator}.
+ */
+@Getter
+@Builder
+@ToString
+public class HedgingMetrics {
+    private final long evaluations;
+    private final long hedgesFired;
+    private final long hedgesWon;
+    private final long hedgesDeniedByBudget;
+    private final long currentDelayMillis;
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Configures when a read-only evaluation is hedged, i.e., re-sent to a second peer because the first peer is slow.
+ */
+@Getter
+@Builder
+@ToString
+public class HedgingPolicy {
+    /**
+     * The percentile of recently observed evaluation latencies after which a hedge is sent (e.g., 0.95).
+     */
+    @Builder.Default
+    private final double delayPercentile = 0.95;
+    /**
+     * The lower bound of the hedging delay. It is also used until enough latencies are observed.
+     */
+    @Builder.Default
+    private final long minDelayMillis = 20;
+    /**
+     * The upper bound of the hedging delay.
+     */
+    @Builder.Default
+    private final long maxDelayMillis = 2000;
+    /**
+     * The maximum ratio of hedges to evaluations, which caps the extra load hedging puts on the peers.
+     */
+    @Builder.Default
+    private final double budgetRatio = 0.1;
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Getter;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounds the cost of logging on the invocation and event paths of an adapter: log records are rate-limited per key
+ * (e.g., per chaincode function) and payloads are truncated. The limits are set per connection profile, see
+ * {@code fabric.logHotPathMaxPerSecond} and {@code fabric.logMaxPayloadChars}. Callers are expected to check the log
+ * level first and to pass the messages built here as lazy suppliers.
+ */
+public class HotPathLog {
+    public static final int DEFAULT_MAX_PER_SECOND = 10;
+    public static final int DEFAULT_MAX_PAYLOAD_CHARS = 256;
+    /**
+     * The records per key and second. Zero disables the limit.
+     */
+    @Getter
+    private final int maxPerSecond;
+    /**
+     * The logged characters (or bytes of event payloads) per payload. Zero disables truncation.
+     */
+    @Getter
+    private final int maxPayloadChars;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public HotPathLog(int maxPerSecond, int maxPayloadChars) {
+        this.maxPerSecond = maxPerSecond;
+        this.maxPayloadChars = maxPayloadChars;
+    }
+
+    public static HotPathLog defaults() {
+        return new HotPathLog(DEFAULT_MAX_PER_SECOND, DEFAULT_MAX_PAYLOAD_CHARS);
+    }
+
+    /**
+     * Checks whether another record may be logged for a key in the current second.
+     *
+     * @param key the key, e.g., channel/chaincode/function.
+     * @return the number of records suppressed for the key since the last permitted one (>= 0), or -1 if the record is
+     * to be suppressed.
+     */
+    public long permit(String key) {
+        return permit(key, System.currentTimeMillis());
+    }
+
+    long permit(String key, long nowMillis) {
+        if (maxPerSecond <= 0) {
+            return 0;
+        }
+
+        return windows.computeIfAbsent(key, k -> new Window()).permit(nowMillis / 1000, maxPerSecond);
+    }
+
+    public String truncate(String payload) {
+        if (payload == null || maxPayloadChars <= 0 || payload.length() <= maxPayloadChars) {
+            return payload;
+        }
+
+        return payload.substring(0, maxPayloadChars) + "...(" + payload.length() + " chars)";
+    }
+
+    /**
+     * Describes an event without decoding more of its payload than is logged.
+     */
+    public String describe(ChaincodeEvent event) {
+        byte[] payload = event.getPayload();
+        int length = maxPayloadChars > 0 ? Math.min(payload.length, maxPayloadChars) : payload.length;
+        String preview = new String(payload, 0, length, StandardCharsets.UTF_8);
+
+        return String.format("%s/%s (block: %d, tx: %s, payload: %s%s)", event.getChaincodeName(), event.getEventName(),
+                event.getBlockNumber(), event.getTransactionId(), preview,
+                length < payload.length ? "...(" + payload.length + " bytes)" : "");
+    }
+
+    private static class Window {
+        private long second = -1;
+        private int count;
+        private long suppressed;
+
+        synchronized long permit(long currentSecond, int maxPerSecond) {
+            if (currentSecond != second) {
+                second = currentSecond;
+                count = 0;
+            }
+
+            if (count >= maxPerSecond) {
+                suppressed++;
+                return -1;
+            }
+
+            count++;
+            long result = suppressed;
+            suppressed = 0;
+
+            return result;
+        }
+    }
+}
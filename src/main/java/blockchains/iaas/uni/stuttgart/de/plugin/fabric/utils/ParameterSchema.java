@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parts of the JSON type schema of a parameter that determine how its value is passed to and from the chaincode.
+ * A parameter is binary if its schema is one of:
+ * <ul>
+ *     <li><code>{ "type": "string", "contentEncoding": "base64" }</code></li>
+ *     <li><code>{ "type": "string", "format": "byte" }</code></li>
+ *     <li><code>{ "type": "bytes" }</code></li>
+ * </ul>
+ * Binary values are base64-encoded in the parameter value and are passed to the chaincode as raw bytes.
+ * An input parameter whose schema has <code>"transient": true</code> is passed as transient data (keyed by the
+ * parameter name) instead of as a function argument, so it is not recorded on the ledger.
+ */
+@Log4j2
+@Getter
+@AllArgsConstructor
+public class ParameterSchema {
+    private static final ParameterSchema TEXT = new ParameterSchema(false, false);
+    private static final int MAX_CACHED_SCHEMAS = 1024;
+    private static final Map<String, ParameterSchema> CACHE = new ConcurrentHashMap<>();
+
+    private final boolean binary;
+    private final boolean transientData;
+
+    /**
+     * Parses the type schema of a parameter. Parsed schemas are cached, since the same few schemas are used by all calls.
+     *
+     * @param type the JSON type schema.
+     * @return the parsed schema. Schemas that cannot be parsed are treated as text.
+     */
+    public static ParameterSchema of(String type) {
+        if (type == null || type.isEmpty()) {
+            return TEXT;
+        }
+
+        ParameterSchema schema = CACHE.get(type);
+
+        if (schema == null) {
+            schema = parse(type);
+
+            if (CACHE.size() < MAX_CACHED_SCHEMAS) {
+                CACHE.put(type, schema);
+            }
+        }
+
+        return schema;
+    }
+
+    private static ParameterSchema parse(String type) {
+        try {
+            JsonElement element = JsonParser.parseString(type);
+
+            if (!element.isJsonObject()) {
+                return TEXT;
+            }
+
+            JsonObject json = element.getAsJsonObject();
+            String jsonType = getString(json, "type");
+            boolean binary = "bytes".equals(jsonType) ||
+                    ("string".equals(jsonType) && ("base64".equalsIgnoreCase(getString(json, "contentEncoding")) ||
+                            "byte".equals(getString(json, "format"))));
+            boolean transientData = json.has("transient") && json.get("transient").isJsonPrimitive() &&
+                    json.get("transient").getAsBoolean();
+
+            return new ParameterSchema(binary, transientData);
+        } catch (RuntimeException e) {
+            log.warn("Failed to parse the parameter type schema {}. Treating it as text.", type);
+            return TEXT;
+        }
+    }
+
+    private static String getString(JsonObject json, String member) {
+        JsonElement value = json.get(member);
+
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+}
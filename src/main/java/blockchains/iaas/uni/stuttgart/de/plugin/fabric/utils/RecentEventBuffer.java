@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded ring buffer of the most recent chaincode events of a chaincode. Once full, the oldest events are evicted.
+ * The buffer keeps track of the block and the time since which it holds all events, so that callers can tell whether a
+ * query can be answered from memory.
+ */
+public class RecentEventBuffer {
+    private final ChaincodeEvent[] events;
+    private final long[] receivedAtMillis;
+    private int next;
+    private int size;
+    private long added;
+    private long completeSinceBlock;
+    private long completeSinceMillis;
+
+    /**
+     * @param capacity   the maximum number of buffered events.
+     * @param startBlock the block from which the buffer is filled.
+     */
+    public RecentEventBuffer(int capacity, long startBlock) {
+        this.events = new ChaincodeEvent[capacity];
+        this.receivedAtMillis = new long[capacity];
+        this.completeSinceBlock = startBlock;
+        this.completeSinceMillis = System.currentTimeMillis();
+    }
+
+    public synchronized void add(ChaincodeEvent event) {
+        if (size == events.length) {
+            // all events received after the evicted one are still buffered.
+            completeSinceBlock = events[next].getBlockNumber() + 1;
+            completeSinceMillis = receivedAtMillis[next] + 1;
+        } else {
+            size++;
+        }
+
+        events[next] = event;
+        receivedAtMillis[next] = System.currentTimeMillis();
+        next = (next + 1) % events.length;
+        added++;
+    }
+
+    /**
+     * @return the number of events added so far, which is also the position of the next added event.
+     */
+    public synchronized long getAddedCount() {
+        return added;
+    }
+
+    /**
+     * @return the position of the oldest buffered event.
+     */
+    public synchronized long getOldestPosition() {
+        return added - size;
+    }
+
+    /**
+     * Selects buffered events by their position, i.e., the number of events added before them.
+     *
+     * @param position the position of the first event. If it was evicted, the selection starts at the oldest event.
+     * @param max      the maximum number of events.
+     * @return the events in the order they were received.
+     */
+    public synchronized List<ChaincodeEvent> getFrom(long position, int max) {
+        long from = Math.max(position, getOldestPosition());
+        int count = (int) Math.min(max, added - from);
+        List<ChaincodeEvent> result = new ArrayList<>(Math.max(count, 0));
+
+        for (int i = 0; i < count; i++) {
+            long offset = added - from - i;
+            result.add(events[(int) ((next - offset) % events.length + events.length) % events.length]);
+        }
+
+        return result;
+    }
+
+    public synchronized long getCompleteSinceBlock() {
+        return completeSinceBlock;
+    }
+
+    /**
+     * @return the time (epoch milliseconds) since which all received events are buffered.
+     */
+    public synchronized long getCompleteSinceMillis() {
+        return completeSinceMillis;
+    }
+
+    /**
+     * Selects all events received within a time frame, if the buffer holds all of them.
+     *
+     * @param fromMillis the start of the time frame (inclusive) as epoch milliseconds.
+     * @param toMillis   the end of the time frame (inclusive) as epoch milliseconds.
+     * @return the events in the order they were received, or null if the time frame starts before the buffer was
+     * started or before its most recently evicted event.
+     */
+    public synchronized List<ChaincodeEvent> getAllReceivedBetween(long fromMillis, long toMillis) {
+        if (fromMillis < completeSinceMillis) {
+            return null;
+        }
+
+        return getReceivedBetween(fromMillis, toMillis);
+    }
+
+    /**
+     * Selects the events of the last blocks, counted back from the block of the most recent buffered event.
+     *
+     * @param blocks the number of blocks.
+     * @return the events in the order they were received.
+     */
+    public synchronized List<ChaincodeEvent> getLastBlocks(int blocks) {
+        if (size == 0 || blocks <= 0) {
+            return new ArrayList<>();
+        }
+
+        long newestBlock = events[(next - 1 + events.length) % events.length].getBlockNumber();
+        long fromBlock = newestBlock - blocks + 1;
+        List<ChaincodeEvent> result = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            ChaincodeEvent event = events[(next - size + i + events.length) % events.length];
+
+            if (event.getBlockNumber() >= fromBlock) {
+                result.add(event);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Selects the events received within a time frame.
+     *
+     * @param fromMillis the start of the time frame (inclusive) as epoch milliseconds.
+     * @param toMillis   the end of the time frame (inclusive) as epoch milliseconds.
+     * @return the events in the order they were received.
+     */
+    public synchronized List<ChaincodeEvent> getReceivedBetween(long fromMillis, long toMillis) {
+        List<ChaincodeEvent> result = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            int index = (next - size + i + events.length) % events.length;
+
+            if (receivedAtMillis[index] >= fromMillis && receivedAtMillis[index] <= toMillis) {
+                result.add(events[index]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Selects the events requested by a replay.
+     *
+     * @param replay the replay request.
+     * @return the events in the order they were received.
+     */
+    public List<ChaincodeEvent> select(EventReplay replay) {
+        if (replay.getLastBlocks() > 0) {
+            return getLastBlocks(replay.getLastBlocks());
+        }
+
+        if (replay.getLastMillis() > 0) {
+            return getReceivedBetween(System.currentTimeMillis() - replay.getLastMillis(), Long.MAX_VALUE);
+        }
+
+        return new ArrayList<>();
+    }
+}
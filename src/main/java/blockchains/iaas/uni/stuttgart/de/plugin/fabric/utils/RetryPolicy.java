@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.GatewayRuntimeException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent calls that fail with transient gRPC errors, using exponential backoff with full jitter.
+ */
+@Log4j2
+@Getter
+@Builder
+@ToString
+public class RetryPolicy {
+    /**
+     * The maximum number of attempts, including the first one.
+     */
+    @Builder.Default
+    private final int maxAttempts = 3;
+    @Builder.Default
+    private final long initialBackoffMillis = 100;
+    @Builder.Default
+    private final long maxBackoffMillis = 2000;
+    @Builder.Default
+    private final double backoffMultiplier = 2.0;
+
+    /**
+     * Executes an idempotent call through the given circuit breaker, retrying it on transient failures.
+     *
+     * @param breaker the circuit breaker of the peer the call goes to.
+     * @param call    the call to execute.
+     * @param <T>     the type of the result.
+     * @return the result of the call.
+     * @throws Exception the failure of the last attempt.
+     */
+    public <T> T execute(CircuitBreaker breaker, Callable<T> call) throws Exception {
+        return execute(() -> breaker.call(call));
+    }
+
+    /**
+     * Executes an idempotent call, retrying it on transient failures. The call is expected to go through the circuit
+     * breaker(s) of the peer(s) it reaches itself.
+     *
+     * @param call the call to execute.
+     * @param <T>  the type of the result.
+     * @return the result of the call.
+     * @throws Exception the failure of the last attempt.
+     */
+    public <T> T execute(Callable<T> call) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+
+                long backoff = getBackoffMillis(attempt);
+                log.debug("Attempt {} failed with a transient error. Retrying in {} ms...", attempt, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Computes the (jittered) time to wait after the given failed attempt.
+     *
+     * @param attempt the number of the failed attempt, starting at 1.
+     * @return a random backoff between zero and the exponential backoff bound.
+     */
+    public long getBackoffMillis(int attempt) {
+        double bound = initialBackoffMillis * Math.pow(backoffMultiplier, Math.max(0, attempt - 1));
+        long cappedBound = (long) Math.min(maxBackoffMillis, bound);
+
+        return ThreadLocalRandom.current().nextLong(cappedBound + 1);
+    }
+
+    /**
+     * Checks whether an error is a transient gRPC failure, i.e., one that is likely to go away when retrying.
+     *
+     * @param e the error.
+     * @return true if the error (or one of its causes) carries a transient gRPC status code.
+     */
+    public static boolean isTransient(Throwable e) {
+        Status.Code code = getStatusCode(e);
+
+        return code == Status.Code.UNAVAILABLE || code == Status.Code.DEADLINE_EXCEEDED || code == Status.Code.RESOURCE_EXHAUSTED;
+    }
+
+    /**
+     * @return true if the call was cancelled by the client, e.g., because a hedged call won. This says nothing about the
+     * health of the peer.
+     */
+    public static boolean isCancelled(Throwable e) {
+        return getStatusCode(e) == Status.Code.CANCELLED;
+    }
+
+    /**
+     * @return the gRPC status code of the first exception in the cause chain that carries one, or null.
+     */
+    static Status.Code getStatusCode(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            Status status = null;
+
+            if (current instanceof GatewayException) {
+                status = ((GatewayException) current).getStatus();
+            } else if (current instanceof GatewayRuntimeException) {
+                status = ((GatewayRuntimeException) current).getStatus();
+            } else if (current instanceof StatusRuntimeException) {
+                status = ((StatusRuntimeException) current).getStatus();
+            }
+
+            if (status != null) {
+                return status.getCode();
+            }
+
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+
+        return null;
+    }
+}
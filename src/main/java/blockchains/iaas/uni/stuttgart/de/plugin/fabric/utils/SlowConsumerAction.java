@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+/**
+ * What happens to an event subscriber that cannot keep up with the events of its chaincode.
+ */
+public enum SlowConsumerAction {
+    /**
+     * The oldest queued events of the subscriber are dropped.
+     */
+    SHED,
+    /**
+     * The subscription is terminated with an error.
+     */
+    DISCONNECT,
+    /**
+     * The queued events of the subscriber are dropped and re-read from the event buffer at the pace of the subscriber,
+     * until it has caught up with the live events. Events evicted from the buffer in the meantime are missed. Without an
+     * event buffer, this behaves like {@link #SHED}.
+     */
+    CATCH_UP
+}
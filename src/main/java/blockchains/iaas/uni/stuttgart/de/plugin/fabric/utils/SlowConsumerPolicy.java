@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Configures when an event subscriber is considered slow and what happens to it.
+ */
+@Getter
+@Builder
+@ToString
+public class SlowConsumerPolicy {
+    /**
+     * The number of queued events after which a subscriber is slow. Zero (the default) does not limit the queue.
+     */
+    @Builder.Default
+    private final int maxQueueDepth = 0;
+    /**
+     * The age of the oldest queued event, or of the event the subscriber is busy with, after which a subscriber is slow.
+     * Zero (the default) does not limit the lag.
+     */
+    @Builder.Default
+    private final long maxLagMillis = 0;
+    /**
+     * Only applies once a threshold is set. Disconnecting is the default, since it is the only action under which a
+     * subscriber never silently misses events.
+     */
+    @Builder.Default
+    private final SlowConsumerAction action = SlowConsumerAction.DISCONNECT;
+
+    public static SlowConsumerPolicy defaults() {
+        return SlowConsumerPolicy.builder().build();
+    }
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Institute for the Architecture of Application System - University of Stuttgart
+ *
+ * This program and the accompanying materials are made available under the
+ * terms the Apache Software License 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *******************************************************************************/
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A snapshot of the counters of an event subscription.
+ */
+@Getter
+@Builder
+@ToString
+public class SubscriberMetrics {
+    /**
+     * The name of the subscription: channel/chaincode/event#id.
+     */
+    private final String name;
+    private final int queueDepth;
+    private final long delivered;
+    private final long dropped;
+    private final long catchUps;
+    private final long maxDeliveryLagMillis;
+    private final boolean slow;
+    private final boolean disconnected;
+}
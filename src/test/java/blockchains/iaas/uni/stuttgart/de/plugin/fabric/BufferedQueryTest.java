@@ -0,0 +1,107 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.api.exceptions.InvalidScipParameterException;
+import blockchains.iaas.uni.stuttgart.de.api.model.Parameter;
+import blockchains.iaas.uni.stuttgart.de.api.model.QueryResult;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+class BufferedQueryTest {
+    private final FabricAdapter adapter = new FabricAdapter("User1", "crypto", "Org1MSP", "localhost:7051",
+            "peer0.org1.example.com", "rm/ResourceManager");
+
+    @Test
+    void answersQueriesStartingAfterTheBufferStarted() throws Exception {
+        // the subscription of the buffer started at block 100, not at the first block.
+        RecentEventBuffer buffer = new RecentEventBuffer(8, 100);
+        LocalDateTime start = toDateTime(buffer.getCompleteSinceMillis());
+        buffer.add(event(100, "Event", "tx0"));
+        buffer.add(event(101, "Other", "tx1"));
+        Thread.sleep(20);
+        LocalDateTime between = toDateTime(System.currentTimeMillis());
+        Thread.sleep(20);
+        buffer.add(event(102, "Event", "tx2"));
+
+        Assertions.assertEquals(2, query(buffer, start, null).getOccurrences().size());
+        Assertions.assertEquals(1, query(buffer, start, between).getOccurrences().size());
+        Assertions.assertEquals(1, query(buffer, between, null).getOccurrences().size());
+        Assertions.assertTrue(query(buffer, toDateTime(System.currentTimeMillis() + 60_000), null).getOccurrences().isEmpty());
+    }
+
+    @Test
+    void queriesTheLedgerForEventsBeforeTheBuffer() throws Exception {
+        RecentEventBuffer buffer = new RecentEventBuffer(2, 100);
+        LocalDateTime start = toDateTime(buffer.getCompleteSinceMillis());
+        buffer.add(event(100, "Event", "tx0"));
+
+        Assertions.assertNull(query(buffer, null, null));
+        Assertions.assertNull(query(buffer, start.minusSeconds(1), null));
+        Assertions.assertNull(query(null, start, null));
+
+        Thread.sleep(20);
+        buffer.add(event(101, "Event", "tx1"));
+        buffer.add(event(102, "Event", "tx2"));
+
+        // the event of block 100 was evicted.
+        Assertions.assertNull(query(buffer, start, null));
+    }
+
+    @Test
+    void convertsOccurrences() throws Exception {
+        RecentEventBuffer buffer = new RecentEventBuffer(4, 100);
+        LocalDateTime start = toDateTime(buffer.getCompleteSinceMillis());
+        buffer.add(event(100, "Other", "tx0"));
+        buffer.add(event(101, "Event", "tx1"));
+
+        QueryResult result = adapter.queryBufferedEvents(buffer, "Event",
+                List.of(new Parameter("txId", "{ \"type\": \"string\" }", null)), null, start, null);
+
+        Assertions.assertEquals(1, result.getOccurrences().size());
+        Assertions.assertEquals("tx1", result.getOccurrences().get(0).getParameters().get(0).getValue());
+    }
+
+    private QueryResult query(RecentEventBuffer buffer, LocalDateTime from, LocalDateTime to) throws InvalidScipParameterException {
+        return adapter.queryBufferedEvents(buffer, "Event", null, null, from, to);
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.of("UTC"));
+    }
+
+    private static ChaincodeEvent event(long blockNumber, String eventName, String transactionId) {
+        return new ChaincodeEvent() {
+            @Override
+            public long getBlockNumber() {
+                return blockNumber;
+            }
+
+            @Override
+            public String getTransactionId() {
+                return transactionId;
+            }
+
+            @Override
+            public String getChaincodeName() {
+                return "cc";
+            }
+
+            @Override
+            public String getEventName() {
+                return eventName;
+            }
+
+            @Override
+            public byte[] getPayload() {
+                return ("{\"txId\": \"" + transactionId + "\"}").getBytes(StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
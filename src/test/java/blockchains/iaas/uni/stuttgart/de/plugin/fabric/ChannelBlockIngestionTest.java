@@ -0,0 +1,141 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RetryPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.TestBlocks;
+import io.grpc.Status;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.GatewayRuntimeException;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.protos.common.Block;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+class ChannelBlockIngestionTest {
+    private final RetryPolicy retryPolicy = RetryPolicy.builder().initialBackoffMillis(1).maxBackoffMillis(1).build();
+
+    @Test
+    void reconnectsFromNextBlock() throws Exception {
+        // the first stream fails after block 6, the second one after block 8.
+        FakeNetwork network = new FakeNetwork(12, 7, 9);
+        ChannelBlockIngestion ingestion = new ChannelBlockIngestion("mychannel", network.proxy(), 5, retryPolicy);
+        ChaincodeEventHub hub = new ChaincodeEventHub("cc", new RecentEventBuffer(64, 5), SlowConsumerPolicy.defaults(), () -> {
+        });
+        ingestion.addHub(hub);
+        CompletableFuture<Throwable> terminated = new CompletableFuture<>();
+
+        try {
+            ingestion.start(terminated::complete);
+
+            Assertions.assertNull(terminated.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(List.of(5L, 7L, 9L), network.startBlocks);
+            Assertions.assertEquals(12, ingestion.getNextBlock());
+            // every event of blocks 5 to 11 was dispatched exactly once and in order.
+            Assertions.assertEquals(LongStream.range(5, 12).mapToObj(ChannelBlockIngestionTest::transactionId).toList(),
+                    hub.getBuffer().getFrom(0, 100).stream().map(ChaincodeEvent::getTransactionId).toList());
+        } finally {
+            ingestion.close();
+            hub.close();
+        }
+    }
+
+    @Test
+    void givesUpAfterRepeatedFailures() throws Exception {
+        // every stream fails before delivering a block.
+        FakeNetwork network = new FakeNetwork(12, 5, 5, 5, 5);
+        ChannelBlockIngestion ingestion = new ChannelBlockIngestion("mychannel", network.proxy(), 5, retryPolicy);
+        CompletableFuture<Throwable> terminated = new CompletableFuture<>();
+
+        try {
+            ingestion.start(terminated::complete);
+
+            Assertions.assertTrue(terminated.get(5, TimeUnit.SECONDS) instanceof GatewayRuntimeException);
+            Assertions.assertEquals(List.of(5L, 5L, 5L), network.startBlocks);
+            Assertions.assertEquals(5, ingestion.getNextBlock());
+        } finally {
+            ingestion.close();
+        }
+    }
+
+    private static String transactionId(long blockNumber) {
+        return "tx" + blockNumber;
+    }
+
+    /**
+     * Serves the blocks of a channel from the requested start block on, with each stream failing as configured. Only
+     * the calls used to read block events are implemented.
+     */
+    private static class FakeNetwork {
+        private final long height;
+        private final List<Long> failAtBlocks;
+        private final List<Long> startBlocks = new CopyOnWriteArrayList<>();
+        private long startBlock;
+
+        /**
+         * @param height       the number of blocks of the channel, after which the last stream ends.
+         * @param failAtBlocks for each stream, the block before which it fails with a transient error.
+         */
+        FakeNetwork(long height, long... failAtBlocks) {
+            this.height = height;
+            this.failAtBlocks = new ArrayList<>(LongStream.of(failAtBlocks).boxed().toList());
+        }
+
+        Network proxy() {
+            return (Network) newProxy(Network.class);
+        }
+
+        private Object newProxy(Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                    switch (method.getName()) {
+                        case "startBlock" -> {
+                            startBlock = (long) args[0];
+                            yield proxy;
+                        }
+                        case "getEvents" -> newStream();
+                        // the request and its builder.
+                        case "newBlockEventsRequest", "build" -> newProxy(method.getReturnType());
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private synchronized CloseableIterator<Block> newStream() {
+            startBlocks.add(startBlock);
+            long end = failAtBlocks.isEmpty() ? height : failAtBlocks.remove(0);
+            Iterator<Block> blocks = LongStream.range(startBlock, Math.min(end, height))
+                    .mapToObj(number -> TestBlocks.newBlock(number, List.of(TestBlocks.newTransaction(
+                            TestBlocks.newEvent("cc", transactionId(number), "Event", "{}")))))
+                    .iterator();
+
+            return new CloseableIterator<>() {
+                @Override
+                public boolean hasNext() {
+                    if (!blocks.hasNext() && end < height) {
+                        throw new GatewayRuntimeException(Status.UNAVAILABLE.asRuntimeException());
+                    }
+
+                    return blocks.hasNext();
+                }
+
+                @Override
+                public Block next() {
+                    return blocks.next();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.RecentEventBuffer;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerAction;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerPolicy;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SubscriberMetrics;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.observers.TestObserver;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class EventSubscriberTest {
+    private final Object hubLock = new Object();
+    /**
+     * The drain tasks of the subscribers, which only run when the test says so, to simulate a subscriber that does not
+     * keep up.
+     */
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    @Test
+    void defaultPolicyNeverTreatsSubscribersAsSlow() {
+        TestObserver<ChaincodeEvent> observer = new TestObserver<>();
+        EventSubscriber subscriber = newSubscriber(SlowConsumerPolicy.defaults(), null, observer);
+
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertTrue(subscriber.enqueue(event(i), i));
+        }
+
+        Assertions.assertTrue(subscriber.checkSlow());
+        SubscriberMetrics metrics = subscriber.getMetrics();
+        Assertions.assertEquals(10_000, metrics.getQueueDepth());
+        Assertions.assertFalse(metrics.isSlow());
+
+        runPendingDrains();
+
+        observer.assertValueCount(10_000);
+        observer.assertNotTerminated();
+    }
+
+    @Test
+    void shedDropsTheOldestEvents() {
+        TestObserver<ChaincodeEvent> observer = new TestObserver<>();
+        EventSubscriber subscriber = newSubscriber(queueDepthPolicy(SlowConsumerAction.SHED), null, observer);
+        List<ChaincodeEvent> events = publish(subscriber, null, 5);
+
+        SubscriberMetrics metrics = subscriber.getMetrics();
+        Assertions.assertTrue(metrics.isSlow());
+        Assertions.assertEquals(3, metrics.getDropped());
+
+        runPendingDrains();
+
+        observer.assertValues(events.get(3), events.get(4));
+        observer.assertNotTerminated();
+        Assertions.assertFalse(subscriber.getMetrics().isSlow());
+    }
+
+    @Test
+    void disconnectTerminatesTheSubscription() {
+        TestObserver<ChaincodeEvent> observer = new TestObserver<>();
+        EventSubscriber subscriber = newSubscriber(queueDepthPolicy(SlowConsumerAction.DISCONNECT), null, observer);
+
+        Assertions.assertTrue(subscriber.enqueue(event(0), 0));
+        Assertions.assertTrue(subscriber.enqueue(event(1), 1));
+        Assertions.assertFalse(subscriber.enqueue(event(2), 2));
+        // the queue is released right away.
+        Assertions.assertEquals(0, subscriber.getMetrics().getQueueDepth());
+        Assertions.assertTrue(subscriber.getMetrics().isDisconnected());
+
+        runPendingDrains();
+
+        observer.assertNoValues();
+        observer.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    void catchUpRereadsTheEventsFromTheBuffer() {
+        TestObserver<ChaincodeEvent> observer = new TestObserver<>();
+        RecentEventBuffer buffer = new RecentEventBuffer(16, 0);
+        EventSubscriber subscriber = newSubscriber(queueDepthPolicy(SlowConsumerAction.CATCH_UP), buffer, observer);
+        List<ChaincodeEvent> events = publish(subscriber, buffer, 5);
+
+        SubscriberMetrics metrics = subscriber.getMetrics();
+        Assertions.assertEquals(1, metrics.getCatchUps());
+        Assertions.assertEquals(0, metrics.getQueueDepth());
+
+        runPendingDrains();
+        events.addAll(publish(subscriber, buffer, 1));
+        runPendingDrains();
+
+        // all events are delivered in order: first from the buffer, then live again.
+        observer.assertValueSequence(events);
+        observer.assertNotTerminated();
+        Assertions.assertEquals(0, subscriber.getMetrics().getDropped());
+    }
+
+    @Test
+    void catchUpWithoutBufferSheds() {
+        TestObserver<ChaincodeEvent> observer = new TestObserver<>();
+        EventSubscriber subscriber = newSubscriber(queueDepthPolicy(SlowConsumerAction.CATCH_UP), null, observer);
+        List<ChaincodeEvent> events = publish(subscriber, null, 5);
+
+        runPendingDrains();
+
+        observer.assertValues(events.get(3), events.get(4));
+        Assertions.assertEquals(0, subscriber.getMetrics().getCatchUps());
+    }
+
+    @Test
+    void disconnectsSubscriberStuckWithAnEvent() throws InterruptedException {
+        SlowConsumerPolicy policy = SlowConsumerPolicy.builder().maxLagMillis(50).action(SlowConsumerAction.DISCONNECT).build();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicReference<ObservableEmitter<ChaincodeEvent>> emitter = new AtomicReference<>();
+        Observable.<ChaincodeEvent>create(emitter::set).subscribe(event -> {
+            received.countDown();
+            release.await();
+        }, error::set);
+        EventSubscriber subscriber = new EventSubscriber("stuck", emitter.get(), policy, null, hubLock, executorService);
+
+        try {
+            subscriber.enqueue(event(0), 0);
+            Assertions.assertTrue(received.await(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(subscriber.checkSlow());
+
+            // no further events are published, but the subscriber is still detected as slow.
+            Thread.sleep(100);
+
+            Assertions.assertFalse(subscriber.checkSlow());
+            Assertions.assertTrue(subscriber.getMetrics().isDisconnected());
+            Assertions.assertNull(error.get());
+
+            release.countDown();
+            executorService.shutdown();
+            Assertions.assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+
+            Assertions.assertTrue(error.get() instanceof IllegalStateException);
+        } finally {
+            release.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    private EventSubscriber newSubscriber(SlowConsumerPolicy policy, RecentEventBuffer buffer,
+                                          TestObserver<ChaincodeEvent> observer) {
+        AtomicReference<ObservableEmitter<ChaincodeEvent>> emitter = new AtomicReference<>();
+        Observable.<ChaincodeEvent>create(emitter::set).subscribe(observer);
+
+        return new EventSubscriber("test", emitter.get(), policy, buffer, hubLock, pendingDrains::add);
+    }
+
+    private void runPendingDrains() {
+        while (!pendingDrains.isEmpty()) {
+            pendingDrains.remove(0).run();
+        }
+    }
+
+    /**
+     * Publishes events the way the hub does: they are added to the buffer first and then queued under the hub lock.
+     */
+    private List<ChaincodeEvent> publish(EventSubscriber subscriber, RecentEventBuffer buffer, int count) {
+        List<ChaincodeEvent> events = new ArrayList<>();
+
+        synchronized (hubLock) {
+            for (int i = 0; i < count; i++) {
+                long position = buffer != null ? buffer.getAddedCount() : i;
+                ChaincodeEvent event = event(position);
+
+                if (buffer != null) {
+                    buffer.add(event);
+                }
+
+                subscriber.enqueue(event, position);
+                events.add(event);
+            }
+        }
+
+        return events;
+    }
+
+    private static SlowConsumerPolicy queueDepthPolicy(SlowConsumerAction action) {
+        return SlowConsumerPolicy.builder().maxQueueDepth(2).action(action).build();
+    }
+
+    private static ChaincodeEvent event(long number) {
+        return new ChaincodeEvent() {
+            @Override
+            public long getBlockNumber() {
+                return number;
+            }
+
+            @Override
+            public String getTransactionId() {
+                return "tx" + number;
+            }
+
+            @Override
+            public String getChaincodeName() {
+                return "cc";
+            }
+
+            @Override
+            public String getEventName() {
+                return "Event";
+            }
+
+            @Override
+            public byte[] getPayload() {
+                return "{}".getBytes(StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
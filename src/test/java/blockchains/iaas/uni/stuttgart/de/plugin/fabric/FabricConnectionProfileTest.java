@@ -1,8 +1,12 @@
 package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
 
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventIngestionMode;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.SlowConsumerAction;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Properties;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FabricConnectionProfileTest {
@@ -17,4 +21,68 @@ class FabricConnectionProfileTest {
         profile.setPeerEndpoint("localhost:7051");
         Assertions.assertEquals("CN=user1,OU=client,O=Hyperledger,ST=North Carolina,C=US", profile.getIdentity());
     }
-}
\ No newline at end of file
+
+    @Test
+    void propertiesRoundTrip() {
+        FabricConnectionProfile profile = new FabricConnectionProfile();
+        profile.setCryptoPath("/crypto/org1.example.com");
+        profile.setMspId("Org1MSP");
+        profile.setUsername("User1");
+        profile.setPeerEndpoint("localhost:7051");
+        profile.setOverrideAuth("peer0.org1.example.com");
+        profile.setResourceManagerSmartContractAddress("mychannel/rm");
+        profile.setResourceManagerBatchSupported(true);
+        profile.setHedgePeers("localhost:9051=peer1.org1.example.com");
+        profile.setHedgeDelayPercentile(0.9);
+        profile.setRetryMaxAttempts(5);
+        profile.setCircuitBreakerOpenMillis(2500);
+        profile.setWarmupChannels("mychannel");
+        profile.setKeepAliveWithoutCalls(true);
+        profile.setIdleTimeoutSeconds(300);
+        profile.setSharedEventLoop(false);
+        profile.setEventBufferCapacity(64);
+        profile.setEventIngestionMode(EventIngestionMode.CHANNEL);
+        profile.setUsernames("User2,User3");
+        profile.setSlowConsumerAction(SlowConsumerAction.CATCH_UP);
+        Properties properties = profile.getAsProperties();
+
+        FabricConnectionProfile copy = new FabricConnectionProfile();
+        properties.forEach(copy::setProperty);
+
+        Assertions.assertEquals(properties, copy.getAsProperties());
+        Assertions.assertEquals(EventIngestionMode.CHANNEL, copy.getEventIngestionMode());
+        Assertions.assertEquals(SlowConsumerAction.CATCH_UP, copy.getSlowConsumerAction());
+        Assertions.assertEquals(0.9, copy.getHedgeDelayPercentile());
+        Assertions.assertTrue(copy.isResourceManagerBatchSupported());
+        properties.forEach((key, value) -> Assertions.assertEquals(value.toString(), copy.getProperty(key).toString(), key.toString()));
+    }
+
+    @Test
+    void basicConstructorAppliesDefaults() {
+        FabricConnectionProfile profile = new FabricConnectionProfile("/crypto/org1.example.com", "Org1MSP",
+                "localhost:7051", "peer0.org1.example.com", "mychannel/rm", "User1");
+
+        Assertions.assertEquals("/crypto/org1.example.com", profile.getCryptoPath());
+        Assertions.assertEquals("Org1MSP", profile.getMspId());
+        Assertions.assertEquals("localhost:7051", profile.getPeerEndpoint());
+        Assertions.assertEquals("peer0.org1.example.com", profile.getOverrideAuth());
+        Assertions.assertEquals("mychannel/rm", profile.getResourceManagerSmartContractAddress());
+        Assertions.assertEquals("User1", profile.getUsername());
+        Assertions.assertEquals(new FabricConnectionProfile().getEventIngestionMode(), profile.getEventIngestionMode());
+        Assertions.assertEquals(new FabricConnectionProfile().getRetryMaxAttempts(), profile.getRetryMaxAttempts());
+        Assertions.assertEquals(SlowConsumerAction.DISCONNECT, profile.getSlowConsumerAction());
+    }
+
+    @Test
+    void sharedConnectionPropertiesIgnoreUsers() {
+        FabricConnectionProfile profile = new FabricConnectionProfile();
+        profile.setPeerEndpoint("localhost:7051");
+        profile.setUsername("User1");
+        FabricConnectionProfile other = new FabricConnectionProfile();
+        other.setPeerEndpoint("localhost:7051");
+        other.setUsername("User2");
+        other.setUsernames("User3");
+
+        Assertions.assertEquals(profile.toSharedConnectionProperties(), other.toSharedConnectionProperties());
+    }
+}
@@ -0,0 +1,115 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+class FabricPluginTest {
+    private final FabricPlugin.FabricAdapterImpl extension = new FabricPlugin.FabricAdapterImpl();
+
+    @AfterEach
+    void closeAdapters() {
+        FabricPlugin.closeAdapters();
+    }
+
+    @Test
+    void reusesAdapterOfSameProfile() {
+        FabricAdapter adapter = extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1"));
+
+        Assertions.assertSame(adapter, extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1")));
+    }
+
+    @Test
+    void identitiesShareTheConnection() {
+        FabricAdapter user1 = extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1"));
+        FabricAdapter user2 = extension.getAdapter(profile("User2", "Org1MSP", "/crypto/org1"));
+
+        Assertions.assertNotSame(user1, user2);
+        Assertions.assertSame(user2, user1.forIdentity("User2"));
+        Assertions.assertSame(user1, user2.forIdentity("User1"));
+    }
+
+    @Test
+    void organizationsDoNotShareTheConnection() {
+        FabricAdapter org1 = extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1"));
+        FabricAdapter org2 = extension.getAdapter(profile("User1", "Org2MSP", "/crypto/org2"));
+
+        Assertions.assertNotSame(org1, org2);
+        Assertions.assertSame(org2, extension.getAdapter(profile("User1", "Org2MSP", "/crypto/org2")));
+    }
+
+    @Test
+    void changedSettingsReplaceTheAdapter() {
+        FabricAdapter adapter = extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1"));
+        FabricAdapter user2 = adapter.forIdentity("User2");
+        FabricConnectionProfile edited = profile("User1", "Org1MSP", "/crypto/org1");
+        edited.setRetryMaxAttempts(7);
+
+        FabricAdapter replacement = extension.getAdapter(edited);
+
+        Assertions.assertNotSame(adapter, replacement);
+        Assertions.assertSame(replacement, extension.getAdapter(edited));
+        // the previous adapter was closed, which released the adapters of its other identities.
+        Assertions.assertNotSame(user2, adapter.forIdentity("User2"));
+    }
+
+    @Test
+    void concurrentRequestsGetOneAdapter() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<CompletableFuture<FabricAdapter>> adapters = IntStream.range(0, 32)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        return extension.getAdapter(profile("User1", "Org1MSP", "/crypto/org1"));
+                    }, executorService))
+                    .toList();
+            start.countDown();
+
+            FabricAdapter first = adapters.get(0).get();
+
+            for (CompletableFuture<FabricAdapter> adapter : adapters) {
+                Assertions.assertSame(first, adapter.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void connectionKeyIgnoresUsers() {
+        FabricConnectionProfile user1 = profile("User1", "Org1MSP", "/crypto/org1");
+        FabricConnectionProfile user2 = profile("User2", "Org1MSP", "/crypto/org1");
+        user2.setUsernames("User3");
+
+        Assertions.assertEquals(FabricPlugin.getConnectionKey(user1), FabricPlugin.getConnectionKey(user2));
+        Assertions.assertEquals(user1.toSharedConnectionProperties(), user2.toSharedConnectionProperties());
+        Assertions.assertNotEquals(FabricPlugin.getConnectionKey(user1),
+                FabricPlugin.getConnectionKey(profile("User1", "Org2MSP", "/crypto/org1")));
+    }
+
+    private static FabricConnectionProfile profile(String username, String mspId, String cryptoPath) {
+        FabricConnectionProfile profile = new FabricConnectionProfile();
+        profile.setUsername(username);
+        profile.setMspId(mspId);
+        profile.setCryptoPath(cryptoPath);
+        profile.setPeerEndpoint("localhost:7051");
+        profile.setOverrideAuth("peer0.org1.example.com");
+        profile.setResourceManagerSmartContractAddress("mychannel/rm");
+
+        return profile;
+    }
+}
@@ -0,0 +1,70 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.api.exceptions.ParameterException;
+import blockchains.iaas.uni.stuttgart.de.api.model.Parameter;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.ParameterSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ParameterEncodingTest {
+    private static final String STRING_TYPE = "{ \"type\": \"string\" }";
+    private static final String BINARY_TYPE = "{ \"type\": \"string\", \"contentEncoding\": \"base64\" }";
+    private static final String TRANSIENT_TYPE = "{ \"type\": \"string\", \"transient\": true }";
+    private static final String BINARY_TRANSIENT_TYPE = "{ \"type\": \"bytes\", \"transient\": true }";
+
+    @Test
+    void encodeInputs() throws ParameterException {
+        byte[] blob = {0, 1, 2, (byte) 0xff};
+        List<byte[]> arguments = new ArrayList<>();
+        Map<String, byte[]> transientData = new HashMap<>();
+
+        FabricAdapter.encodeInputs(List.of(
+                new Parameter("text", STRING_TYPE, "héllo"),
+                new Parameter("secret", TRANSIENT_TYPE, "s3cret"),
+                new Parameter("blob", BINARY_TYPE, Base64.getEncoder().encodeToString(blob)),
+                new Parameter("secretBlob", BINARY_TRANSIENT_TYPE, Base64.getEncoder().encodeToString(blob))
+        ), arguments, transientData);
+
+        // transient inputs are not passed as arguments.
+        Assertions.assertEquals(2, arguments.size());
+        Assertions.assertArrayEquals("héllo".getBytes(StandardCharsets.UTF_8), arguments.get(0));
+        Assertions.assertArrayEquals(blob, arguments.get(1));
+        Assertions.assertEquals(2, transientData.size());
+        Assertions.assertArrayEquals("s3cret".getBytes(StandardCharsets.UTF_8), transientData.get("secret"));
+        Assertions.assertArrayEquals(blob, transientData.get("secretBlob"));
+    }
+
+    @Test
+    void invalidBase64IsRejected() {
+        List<Parameter> inputs = List.of(new Parameter("blob", BINARY_TYPE, "not base64!"));
+
+        ParameterException e = Assertions.assertThrows(ParameterException.class,
+                () -> FabricAdapter.encodeInputs(inputs, new ArrayList<>(), new HashMap<>()));
+        Assertions.assertTrue(e.getMessage().contains("blob"));
+    }
+
+    @Test
+    void missingValueIsRejected() {
+        List<Parameter> inputs = List.of(new Parameter("secret", TRANSIENT_TYPE, null));
+
+        Assertions.assertThrows(ParameterException.class,
+                () -> FabricAdapter.encodeInputs(inputs, new ArrayList<>(), new HashMap<>()));
+    }
+
+    @Test
+    void decodeResultValue() {
+        byte[] blob = {(byte) 0xc3, 0x28, 0, 7};
+
+        Assertions.assertEquals(Base64.getEncoder().encodeToString(blob),
+                FabricAdapter.decodeResultValue(blob, ParameterSchema.of(BINARY_TYPE)));
+        Assertions.assertEquals("héllo",
+                FabricAdapter.decodeResultValue("héllo".getBytes(StandardCharsets.UTF_8), ParameterSchema.of(STRING_TYPE)));
+    }
+}
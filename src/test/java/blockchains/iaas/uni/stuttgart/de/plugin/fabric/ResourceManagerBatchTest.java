@@ -0,0 +1,250 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric;
+
+import blockchains.iaas.uni.stuttgart.de.api.exceptions.InvokeSmartContractFunctionFailure;
+import blockchains.iaas.uni.stuttgart.de.api.model.Occurrence;
+import blockchains.iaas.uni.stuttgart.de.api.model.Parameter;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+class ResourceManagerBatchTest {
+    private final FabricAdapter adapter = new FabricAdapter("User1", "crypto", "Org1MSP", "localhost:7051",
+            "peer0.org1.example.com", "rm/ResourceManager");
+
+    @Test
+    void correlateOutOfOrderVotes() {
+        Map<String, CompletableFuture<Occurrence>> votes = votes("tx1", "tx2", "tx3");
+        FakeEventIterator events = new FakeEventIterator(
+                voted("tx3", true),
+                event("SomethingElse", "{\"txId\": \"tx1\"}"),
+                aborted("tx1"),
+                voted("tx2", false),
+                voted("tx4", true));
+
+        FabricAdapter.correlateResourceManagerVotes(events, votes, adapter::toResourceManagerVote);
+
+        assertVote(votes.get("tx2"), "tx2", "false");
+        assertVote(votes.get("tx3"), "tx3", "true");
+        assertVote(votes.get("tx1"), "tx1", null);
+        // the correlation stops as soon as all votes are received.
+        Assertions.assertEquals(4, events.consumed);
+    }
+
+    @Test
+    void correlateMissingVote() {
+        Map<String, CompletableFuture<Occurrence>> votes = votes("tx1", "tx2", "tx3");
+        FakeEventIterator events = new FakeEventIterator(
+                voted("tx1", true),
+                voted("tx1", false),
+                voted("tx3", true));
+
+        FabricAdapter.correlateResourceManagerVotes(events, votes, adapter::toResourceManagerVote);
+
+        assertVote(votes.get("tx1"), "tx1", "true");
+        assertVote(votes.get("tx3"), "tx3", "true");
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> votes.get("tx2").join());
+        Assertions.assertTrue(e.getCause() instanceof InvokeSmartContractFunctionFailure);
+    }
+
+    @Test
+    void correlateStreamEndingEarly() {
+        Map<String, CompletableFuture<Occurrence>> votes = votes("tx1", "tx2");
+
+        FabricAdapter.correlateResourceManagerVotes(new FakeEventIterator(), votes, adapter::toResourceManagerVote);
+
+        votes.values().forEach(vote -> Assertions.assertTrue(vote.isCompletedExceptionally()));
+    }
+
+    @Test
+    void correlateStreamFailure() {
+        Map<String, CompletableFuture<Occurrence>> votes = votes("tx1", "tx2");
+        RuntimeException failure = new IllegalStateException("stream failed");
+        FakeEventIterator events = new FakeEventIterator(voted("tx1", true));
+        events.failure = failure;
+
+        FabricAdapter.correlateResourceManagerVotes(events, votes, adapter::toResourceManagerVote);
+
+        assertVote(votes.get("tx1"), "tx1", "true");
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> votes.get("tx2").join());
+        Assertions.assertSame(failure, e.getCause());
+    }
+
+    @Test
+    void malformedVoteOnlyFailsItsTransaction() {
+        Map<String, CompletableFuture<Occurrence>> votes = votes("tx1", "tx2", "tx3");
+        FakeEventIterator events = new FakeEventIterator(
+                // no transaction id: skipped.
+                event("Voted", "{\"owner\": \"rm\", \"isYes\": \"true\"}"),
+                event("Voted", "not json"),
+                // no vote: fails tx2 only.
+                event("Voted", "{\"owner\": \"rm\", \"txId\": \"tx2\"}"),
+                voted("tx1", true),
+                voted("tx3", false));
+
+        FabricAdapter.correlateResourceManagerVotes(events, votes, adapter::toResourceManagerVote);
+
+        assertVote(votes.get("tx1"), "tx1", "true");
+        assertVote(votes.get("tx3"), "tx3", "false");
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> votes.get("tx2").join());
+        Assertions.assertTrue(e.getCause() instanceof InvokeSmartContractFunctionFailure);
+        Assertions.assertEquals(5, events.consumed);
+    }
+
+    @Test
+    void pipelinedInvocationsAreBounded() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger invoked = new AtomicInteger();
+
+        try {
+            FabricAdapter.invokeResourceManagerPipelined(Arrays.asList("tx1", "tx2", "tx3", "tx4", "tx5", "tx6"),
+                    executorService, txId -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(20);
+                        running.decrementAndGet();
+                        invoked.incrementAndGet();
+                    }).get(5, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assertions.assertEquals(6, invoked.get());
+        Assertions.assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void pipelinedInvocationsFailFast() {
+        ExecutorService executorService = Executors.newFixedThreadPool(1);
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+
+        try {
+            CompletableFuture<Void> result = FabricAdapter.invokeResourceManagerPipelined(Arrays.asList("tx1", "tx2"),
+                    executorService, txId -> {
+                        if ("tx1".equals(txId)) {
+                            throw new InvokeSmartContractFunctionFailure("rejected");
+                        }
+
+                        blocker.get();
+                    });
+
+            CompletionException e = Assertions.assertThrows(CompletionException.class, result::join);
+            Assertions.assertTrue(e.getCause() instanceof InvokeSmartContractFunctionFailure);
+        } finally {
+            blocker.complete(null);
+            executorService.shutdownNow();
+        }
+    }
+
+    private static Map<String, CompletableFuture<Occurrence>> votes(String... txIds) {
+        Map<String, CompletableFuture<Occurrence>> votes = new LinkedHashMap<>();
+
+        for (String txId : txIds) {
+            votes.put(txId, new CompletableFuture<>());
+        }
+
+        return votes;
+    }
+
+    private static void assertVote(CompletableFuture<Occurrence> vote, String txId, String isYes) {
+        Map<String, String> parameters = vote.join()
+                .getParameters()
+                .stream()
+                .collect(Collectors.toMap(Parameter::getName, Parameter::getValue));
+
+        Assertions.assertEquals("rm", parameters.get("owner"));
+        Assertions.assertEquals(txId, parameters.get("txId"));
+        Assertions.assertEquals(isYes, parameters.get("isYes"));
+    }
+
+    private static ChaincodeEvent voted(String txId, boolean isYes) {
+        return event("Voted", String.format("{\"owner\": \"rm\", \"txId\": \"%s\", \"isYes\": \"%s\"}", txId, isYes));
+    }
+
+    private static ChaincodeEvent aborted(String txId) {
+        return event("TxAborted", String.format("{\"owner\": \"rm\", \"txId\": \"%s\"}", txId));
+    }
+
+    private static ChaincodeEvent event(String eventName, String payload) {
+        return new FakeChaincodeEvent(eventName, payload);
+    }
+
+    private static class FakeEventIterator implements CloseableIterator<ChaincodeEvent> {
+        private final Iterator<ChaincodeEvent> events;
+        private RuntimeException failure;
+        private int consumed;
+
+        FakeEventIterator(ChaincodeEvent... events) {
+            this.events = List.of(events).iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!events.hasNext() && failure != null) {
+                throw failure;
+            }
+
+            return events.hasNext();
+        }
+
+        @Override
+        public ChaincodeEvent next() {
+            consumed++;
+            return events.next();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class FakeChaincodeEvent implements ChaincodeEvent {
+        private final String eventName;
+        private final byte[] payload;
+
+        FakeChaincodeEvent(String eventName, String payload) {
+            this.eventName = eventName;
+            this.payload = payload.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public long getBlockNumber() {
+            return 0;
+        }
+
+        @Override
+        public String getTransactionId() {
+            return "fabric-tx";
+        }
+
+        @Override
+        public String getChaincodeName() {
+            return "rm";
+        }
+
+        @Override
+        public String getEventName() {
+            return eventName;
+        }
+
+        @Override
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import blockchains.iaas.uni.stuttgart.de.api.model.Parameter;
+import blockchains.iaas.uni.stuttgart.de.api.model.Transaction;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.FabricAdapter;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.EventIngestionMode;
+import com.google.gson.GsonBuilder;
+import io.reactivex.disposables.Disposable;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares adapter modes against a {@link StandInGatewayServer} at increasing concurrency:
+ * <ul>
+ *     <li>a connection per invocation (as before connections were pooled) against the pooled channel,</li>
+ *     <li>one caller thread per in-flight invocation against a caller pool with one thread per core that is offered the
+ *     same number of invocations. The adapter completes the future of an invocation on the calling thread, so a pooled
+ *     caller is blocked for the whole call as well, and at most one invocation per core is in flight. The comparison
+ *     shows the cost of bounding the callers, not of non-blocking I/O,</li>
+ *     <li>one event stream per subscribed chaincode against one multiplexed block stream per channel.</li>
+ * </ul>
+ * Throughput, p50/p99/p99.9 latency, peak heap usage and peak thread count are written as JSON to target/benchmarks,
+ * so that runs can be compared across plugin versions. Run with {@code mvn test -P benchmark}. The levels and durations
+ * can be changed with the system properties fabric.benchmark.concurrency, fabric.benchmark.subscriptions,
+ * fabric.benchmark.warmUpSeconds and fabric.benchmark.durationSeconds.
+ */
+@Log4j2
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "fabric.benchmark", matches = "true")
+class AdapterModesBenchmark {
+    private static final String CHANNEL = "benchmark";
+    private static final String CHAINCODE = "echo";
+    private static final String FUNCTION = "Echo";
+    private static final String STRING_TYPE = "{ \"type\": \"string\" }";
+    private static final long WARM_UP_SECONDS = Long.getLong("fabric.benchmark.warmUpSeconds", 2);
+    private static final long DURATION_SECONDS = Long.getLong("fabric.benchmark.durationSeconds", 5);
+    private static final long SERVICE_TIME_MICROS = Long.getLong("fabric.benchmark.serviceTimeMicros", 1000);
+    private static final long BLOCK_INTERVAL_MILLIS = Long.getLong("fabric.benchmark.blockIntervalMillis", 20);
+    private static final List<Integer> CONCURRENCY_LEVELS = parseLevels(System.getProperty("fabric.benchmark.concurrency", "1,8,32,128"));
+    private static final List<Integer> SUBSCRIPTION_LEVELS = parseLevels(System.getProperty("fabric.benchmark.subscriptions", "1,8,32,128"));
+    private static final Path OUTPUT_DIR = Paths.get(System.getProperty("fabric.benchmark.outputDir", "target/benchmarks"));
+    private static final List<BenchmarkResult> RESULTS = Collections.synchronizedList(new ArrayList<>());
+    private static StandInGatewayServer server;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new StandInGatewayServer(SERVICE_TIME_MICROS, BLOCK_INTERVAL_MILLIS);
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException, InterruptedException {
+        server.close();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("warmUpSeconds", WARM_UP_SECONDS);
+        settings.put("durationSeconds", DURATION_SECONDS);
+        settings.put("serviceTimeMicros", SERVICE_TIME_MICROS);
+        settings.put("blockIntervalMillis", BLOCK_INTERVAL_MILLIS);
+        settings.put("callerPoolSize", Runtime.getRuntime().availableProcessors());
+        Map<String, Object> report = new LinkedHashMap<>();
+        String version = System.getProperty("fabric.benchmark.pluginVersion", "unknown");
+        report.put("pluginVersion", version);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("settings", settings);
+        report.put("results", RESULTS);
+
+        Files.createDirectories(OUTPUT_DIR);
+        Path file = OUTPUT_DIR.resolve("adapter-modes-" + version + "-" + System.currentTimeMillis() + ".json");
+        Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+        log.info("Wrote the benchmark results to {}.", file.toAbsolutePath());
+    }
+
+    @Test
+    void perCallVersusPooledConnections() throws InterruptedException {
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            runBlocking("connections", "per-call", concurrency, () -> {
+                FabricAdapter adapter = new BenchmarkFabricAdapter(server.getEndpoint());
+
+                try {
+                    invokeEcho(adapter);
+                } finally {
+                    adapter.close();
+                }
+            });
+
+            FabricAdapter pooled = new BenchmarkFabricAdapter(server.getEndpoint());
+
+            try {
+                runBlocking("connections", "pooled", concurrency, () -> invokeEcho(pooled));
+            } finally {
+                pooled.close();
+            }
+        }
+    }
+
+    @Test
+    void threadPerCallVersusCallerPool() throws InterruptedException {
+        FabricAdapter adapter = new BenchmarkFabricAdapter(server.getEndpoint());
+
+        try {
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                runBlocking("invocations", "thread-per-call", concurrency, () -> invokeEcho(adapter));
+                runPooled("invocations", "caller-pool", concurrency, () -> invokeEchoAsync(adapter));
+            }
+        } finally {
+            adapter.close();
+        }
+    }
+
+    @Test
+    void perSubscriptionVersusMultiplexedStreams() throws InterruptedException {
+        for (int subscriptions : SUBSCRIPTION_LEVELS) {
+            runEvents("events", "per-subscription", EventIngestionMode.CHAINCODE, subscriptions);
+            runEvents("events", "multiplexed", EventIngestionMode.CHANNEL, subscriptions);
+        }
+    }
+
+    private static void invokeEcho(FabricAdapter adapter) {
+        invokeEchoAsync(adapter).join();
+    }
+
+    private static CompletableFuture<Transaction> invokeEchoAsync(FabricAdapter adapter) {
+        return adapter.invokeSmartContract(CHANNEL + "/" + CHAINCODE, FUNCTION,
+                List.of(new Parameter("value", STRING_TYPE, "ping")),
+                List.of(new Parameter("result", STRING_TYPE, null)),
+                0, 0, false);
+    }
+
+    /**
+     * Runs the operation in a loop on one thread per concurrency level.
+     */
+    private static void runBlocking(String scenario, String mode, int concurrency, Runnable operation) throws InterruptedException {
+        final long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+        final long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        try (ResourceSampler sampler = new ResourceSampler()) {
+            for (int i = 0; i < concurrency; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                workers.execute(() -> {
+                    long start;
+
+                    while ((start = System.nanoTime()) < measureUntil) {
+                        try {
+                            operation.run();
+
+                            if (start >= measureFrom) {
+                                recorder.record(System.nanoTime() - start);
+                            }
+                        } catch (RuntimeException e) {
+                            if (start >= measureFrom) {
+                                recorder.recordError();
+                            }
+                        }
+                    }
+                });
+            }
+
+            workers.shutdown();
+            awaitTermination(workers);
+            report(BenchmarkResult.of(scenario, mode, concurrency, DURATION_SECONDS, LatencyRecorder.merge(recorders), sampler));
+        }
+    }
+
+    /**
+     * Offers the given number of operations at a time to a pool with one thread per core. The latency is measured from
+     * the submission to the completion of the future returned by the operation, without joining it.
+     */
+    private static <T> void runPooled(String scenario, String mode, int concurrency, Supplier<CompletableFuture<T>> operation) throws InterruptedException {
+        final long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+        final long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        LatencyRecorder recorder = new LatencyRecorder();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        try (ResourceSampler sampler = new ResourceSampler()) {
+            while (System.nanoTime() < measureUntil) {
+                inFlight.acquire();
+                final long start = System.nanoTime();
+                CompletableFuture.supplyAsync(operation, pool).thenCompose(future -> future).whenComplete((result, error) -> {
+                    if (start >= measureFrom && start < measureUntil) {
+                        if (error == null) {
+                            recorder.record(System.nanoTime() - start);
+                        } else {
+                            recorder.recordError();
+                        }
+                    }
+
+                    inFlight.release();
+                });
+            }
+
+            inFlight.acquire(concurrency);
+            pool.shutdown();
+            awaitTermination(pool);
+            report(BenchmarkResult.of(scenario, mode, concurrency, DURATION_SECONDS, LatencyRecorder.merge(List.of(recorder)), sampler));
+        }
+    }
+
+    /**
+     * Subscribes to the events of the given number of chaincodes, measuring the latency from the production of an event
+     * by the stand-in peer to its delivery.
+     */
+    private static void runEvents(String scenario, String mode, EventIngestionMode ingestionMode, int subscriptions) throws InterruptedException {
+        List<String> chaincodes = IntStream.range(0, subscriptions).mapToObj(i -> "events" + i).toList();
+        BenchmarkFabricAdapter adapter = new BenchmarkFabricAdapter(server.getEndpoint());
+        adapter.setEventIngestionMode(ingestionMode);
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Disposable> disposables = new ArrayList<>();
+        server.setChaincodes(chaincodes);
+
+        try (ResourceSampler sampler = new ResourceSampler()) {
+            final long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+            final long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+            for (String chaincode : chaincodes) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                Consumer<Long> onEvent = producedAt -> {
+                    long now = System.nanoTime();
+
+                    if (now >= measureFrom && now < measureUntil) {
+                        recorder.record(now - producedAt);
+                    }
+                };
+                disposables.add(adapter.subscribeToEvent(CHANNEL + "/" + chaincode, StandInGatewayServer.EVENT_NAME,
+                                List.of(new Parameter("ts", STRING_TYPE, null)), 0, null)
+                        .subscribe(occurrence -> onEvent.accept(Long.parseLong(occurrence.getParameters().get(0).getValue())),
+                                error -> recorder.recordError()));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(measureUntil - System.nanoTime());
+            report(BenchmarkResult.of(scenario, mode, subscriptions, DURATION_SECONDS, LatencyRecorder.merge(recorders), sampler));
+        } finally {
+            disposables.forEach(Disposable::dispose);
+            server.setChaincodes(List.of());
+            adapter.close();
+        }
+    }
+
+    private static void report(BenchmarkResult result) {
+        log.info("{}", result);
+        RESULTS.add(result);
+        assertTrue(result.getOperations() > 0, () -> "No operation completed in " + result.getScenario() + "/" + result.getMode());
+    }
+
+    private static void awaitTermination(ExecutorService executor) throws InterruptedException {
+        if (!executor.awaitTermination(DURATION_SECONDS + 60, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Integer> parseLevels(String levels) {
+        return Stream.of(levels.split(","))
+                .map(String::trim)
+                .filter(level -> !level.isEmpty())
+                .map(Integer::parseInt)
+                .toList();
+    }
+}
@@ -0,0 +1,68 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.FabricAdapter;
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.GrpcTransport;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.hyperledger.fabric.client.identity.Signer;
+import org.hyperledger.fabric.client.identity.Signers;
+import org.hyperledger.fabric.client.identity.X509Identity;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+
+/**
+ * A {@link FabricAdapter} that connects to the {@link StandInGatewayServer} without TLS and signs with a generated key,
+ * so that the adapter code runs unchanged against a local peer without crypto material.
+ */
+class BenchmarkFabricAdapter extends FabricAdapter {
+    private static final String MSP_ID = "BenchmarkMSP";
+    private static final KeyPair KEY_PAIR;
+    private static final X509Certificate CERTIFICATE;
+
+    static {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KEY_PAIR = generator.generateKeyPair();
+            X500Name subject = new X500Name("CN=benchmark");
+            long now = System.currentTimeMillis();
+            var builder = new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, new Date(now - 3_600_000),
+                    new Date(now + 86_400_000), subject, KEY_PAIR.getPublic());
+            CERTIFICATE = new JcaX509CertificateConverter()
+                    .getCertificate(builder.build(new JcaContentSignerBuilder("SHA256withECDSA").build(KEY_PAIR.getPrivate())));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    BenchmarkFabricAdapter(String endpoint) {
+        super("benchmark", ".", MSP_ID, endpoint, null, null);
+        // pings would add traffic that is not part of the measured workload.
+        setConnectivityPingIntervalMillis(0);
+    }
+
+    @Override
+    protected ManagedChannel newGrpcConnection(String endpoint, String authority, Path tlsCertPath) {
+        return GrpcTransport.newChannel(endpoint, authority, InsecureChannelCredentials.create(), getTransportSettings());
+    }
+
+    @Override
+    protected X509Identity newIdentity() {
+        return new X509Identity(MSP_ID, CERTIFICATE);
+    }
+
+    @Override
+    protected Signer newSigner() {
+        return Signers.newPrivateKeySigner(KEY_PAIR.getPrivate());
+    }
+}
@@ -0,0 +1,45 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The result of one scenario, mode, and concurrency level, as written to the JSON report.
+ */
+@Getter
+@Builder
+@ToString
+class BenchmarkResult {
+    private final String scenario;
+    private final String mode;
+    private final int concurrency;
+    private final double durationSeconds;
+    private final long operations;
+    private final long errors;
+    private final double throughputPerSecond;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final long peakHeapBytes;
+    private final int peakThreads;
+
+    static BenchmarkResult of(String scenario, String mode, int concurrency, double durationSeconds,
+                              LatencyRecorder latencies, ResourceSampler resources) {
+        return BenchmarkResult
+                .builder()
+                .scenario(scenario)
+                .mode(mode)
+                .concurrency(concurrency)
+                .durationSeconds(durationSeconds)
+                .operations(latencies.getCount())
+                .errors(latencies.getErrors())
+                .throughputPerSecond(latencies.getCount() / durationSeconds)
+                .p50Micros(latencies.getPercentileMicros(0.5))
+                .p99Micros(latencies.getPercentileMicros(0.99))
+                .p999Micros(latencies.getPercentileMicros(0.999))
+                .peakHeapBytes(resources.getPeakHeapBytes())
+                .peakThreads(resources.getPeakThreads())
+                .build();
+    }
+}
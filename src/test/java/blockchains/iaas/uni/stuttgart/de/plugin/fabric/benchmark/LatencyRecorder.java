@@ -0,0 +1,65 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies in nanoseconds. Workers record into their own recorders to avoid contention, and the recorders are
+ * merged after the run.
+ */
+class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+
+        samples[size++] = nanos;
+    }
+
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized long getCount() {
+        return size;
+    }
+
+    synchronized long getErrors() {
+        return errors;
+    }
+
+    static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder result = new LatencyRecorder();
+
+        for (LatencyRecorder recorder : recorders) {
+            synchronized (recorder) {
+                for (int i = 0; i < recorder.size; i++) {
+                    result.record(recorder.samples[i]);
+                }
+
+                result.errors += recorder.errors;
+            }
+        }
+
+        Arrays.sort(result.samples, 0, result.size);
+
+        return result;
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 1 (only valid on merged recorders, whose samples are sorted).
+     * @return the latency in microseconds, or 0 if nothing was recorded.
+     */
+    synchronized double getPercentileMicros(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+
+        return samples[Math.max(index, 0)] / 1000.0;
+    }
+}
@@ -0,0 +1,43 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the heap usage and the number of live threads of the JVM during a run and keeps their peaks.
+ */
+class ResourceSampler implements AutoCloseable {
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private volatile long peakHeapBytes;
+    private volatile int peakThreads;
+
+    ResourceSampler() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    int getPeakThreads() {
+        return peakThreads;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        sample();
+    }
+
+    private synchronized void sample() {
+        peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+        peakThreads = Math.max(peakThreads, threads.getThreadCount());
+    }
+}
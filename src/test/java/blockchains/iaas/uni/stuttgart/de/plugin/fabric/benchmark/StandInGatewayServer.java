@@ -0,0 +1,223 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.benchmark;
+
+import blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils.TestBlocks;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.log4j.Log4j2;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockchainInfo;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.gateway.ChaincodeEventsRequest;
+import org.hyperledger.fabric.protos.gateway.ChaincodeEventsResponse;
+import org.hyperledger.fabric.protos.gateway.EvaluateRequest;
+import org.hyperledger.fabric.protos.gateway.EvaluateResponse;
+import org.hyperledger.fabric.protos.gateway.GatewayGrpc;
+import org.hyperledger.fabric.protos.gateway.SignedChaincodeEventsRequest;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.ChaincodeInvocationSpec;
+import org.hyperledger.fabric.protos.peer.ChaincodeProposalPayload;
+import org.hyperledger.fabric.protos.peer.DeliverGrpc;
+import org.hyperledger.fabric.protos.peer.DeliverResponse;
+import org.hyperledger.fabric.protos.peer.Proposal;
+import org.hyperledger.fabric.protos.peer.Response;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A stand-in for a Fabric peer that serves the gateway and deliver services on a local port without TLS.
+ * <ul>
+ *     <li>Evaluations return their first argument after a simulated service time, and qscc GetChainInfo returns the
+ *     current block height.</li>
+ *     <li>A block is produced at a fixed interval, with one transaction per chaincode, each emitting the event
+ *     {@value #EVENT_NAME} whose payload holds the {@link System#nanoTime()} of its production in the field "ts".</li>
+ * </ul>
+ */
+@Log4j2
+class StandInGatewayServer implements AutoCloseable {
+    static final String EVENT_NAME = "Tick";
+    private final Server server;
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final long serviceTimeMicros;
+    private final AtomicLong height = new AtomicLong(1);
+    private final Set<Consumer<ProducedBlock>> blockListeners = new CopyOnWriteArraySet<>();
+    private volatile List<String> chaincodes = List.of();
+
+    /**
+     * @param serviceTimeMicros   the simulated time the peer takes to evaluate a transaction.
+     * @param blockIntervalMillis the interval at which blocks are produced.
+     */
+    StandInGatewayServer(long serviceTimeMicros, long blockIntervalMillis) throws IOException {
+        this.serviceTimeMicros = serviceTimeMicros;
+        this.server = NettyServerBuilder
+                .forAddress(new InetSocketAddress("localhost", 0))
+                .addService(new GatewayService())
+                .addService(new DeliverService())
+                .build()
+                .start();
+        this.scheduler.scheduleAtFixedRate(this::produceBlock, blockIntervalMillis, blockIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    String getEndpoint() {
+        return "localhost:" + server.getPort();
+    }
+
+    /**
+     * @param chaincodes the chaincodes that emit an event in each produced block.
+     */
+    void setChaincodes(List<String> chaincodes) {
+        this.chaincodes = List.copyOf(chaincodes);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        scheduler.shutdownNow();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void produceBlock() {
+        List<String> currentChaincodes = this.chaincodes;
+        long number = height.getAndIncrement();
+
+        if (currentChaincodes.isEmpty() || blockListeners.isEmpty()) {
+            return;
+        }
+
+        List<ChaincodeEvent> events = new ArrayList<>(currentChaincodes.size());
+        List<Envelope> transactions = new ArrayList<>(currentChaincodes.size());
+
+        for (int i = 0; i < currentChaincodes.size(); i++) {
+            ChaincodeEvent event = TestBlocks.newEvent(currentChaincodes.get(i), number + "-" + i, EVENT_NAME,
+                    "{\"ts\":\"" + System.nanoTime() + "\"}");
+            events.add(event);
+            transactions.add(TestBlocks.newTransaction(event));
+        }
+
+        Block block = TestBlocks.newBlock(number, transactions);
+        ProducedBlock produced = new ProducedBlock(block, events);
+
+        for (Consumer<ProducedBlock> listener : blockListeners) {
+            try {
+                listener.accept(produced);
+            } catch (RuntimeException e) {
+                // the stream was cancelled concurrently.
+                blockListeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Adds the listener of a stream and removes it once the client cancels the stream. Must be called from the service
+     * method itself.
+     */
+    private void listenUntilCancelled(StreamObserver<?> observer, Consumer<ProducedBlock> listener) {
+        blockListeners.add(listener);
+        ((ServerCallStreamObserver<?>) observer).setOnCancelHandler(() -> blockListeners.remove(listener));
+    }
+
+    private class GatewayService extends GatewayGrpc.GatewayImplBase {
+        @Override
+        public void evaluate(EvaluateRequest request, StreamObserver<EvaluateResponse> responseObserver) {
+            final ChaincodeInvocationSpec invocation;
+
+            try {
+                Proposal proposal = Proposal.parseFrom(request.getProposedTransaction().getProposalBytes());
+                invocation = ChaincodeInvocationSpec.parseFrom(ChaincodeProposalPayload.parseFrom(proposal.getPayload()).getInput());
+            } catch (InvalidProtocolBufferException e) {
+                responseObserver.onError(Status.INVALID_ARGUMENT.withCause(e).asRuntimeException());
+                return;
+            }
+
+            List<ByteString> args = invocation.getChaincodeSpec().getInput().getArgsList();
+            String function = args.isEmpty() ? "" : args.get(0).toString(StandardCharsets.UTF_8);
+            final ByteString result;
+
+            if ("GetChainInfo".equals(function)) {
+                result = BlockchainInfo.newBuilder().setHeight(height.get()).build().toByteString();
+            } else {
+                result = args.size() > 1 ? args.get(1) : ByteString.EMPTY;
+            }
+
+            EvaluateResponse response = EvaluateResponse.newBuilder()
+                    .setResult(Response.newBuilder().setStatus(200).setPayload(result))
+                    .build();
+            scheduler.schedule(() -> {
+                responseObserver.onNext(response);
+                responseObserver.onCompleted();
+            }, serviceTimeMicros, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public void chaincodeEvents(SignedChaincodeEventsRequest request, StreamObserver<ChaincodeEventsResponse> responseObserver) {
+            final String chaincode;
+
+            try {
+                chaincode = ChaincodeEventsRequest.parseFrom(request.getRequest()).getChaincodeId();
+            } catch (InvalidProtocolBufferException e) {
+                responseObserver.onError(Status.INVALID_ARGUMENT.withCause(e).asRuntimeException());
+                return;
+            }
+
+            listenUntilCancelled(responseObserver, produced -> {
+                ChaincodeEventsResponse.Builder response = ChaincodeEventsResponse.newBuilder()
+                        .setBlockNumber(produced.block().getHeader().getNumber());
+                produced.events().stream()
+                        .filter(event -> event.getChaincodeId().equals(chaincode))
+                        .forEach(response::addEvents);
+
+                if (response.getEventsCount() > 0) {
+                    responseObserver.onNext(response.build());
+                }
+            });
+        }
+    }
+
+    private class DeliverService extends DeliverGrpc.DeliverImplBase {
+        @Override
+        public StreamObserver<Envelope> deliver(StreamObserver<DeliverResponse> responseObserver) {
+            AtomicBoolean sought = new AtomicBoolean();
+            // blocks are delivered from the seek request on, regardless of the requested start block.
+            listenUntilCancelled(responseObserver, produced -> {
+                if (sought.get()) {
+                    responseObserver.onNext(DeliverResponse.newBuilder().setBlock(produced.block()).build());
+                }
+            });
+
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(Envelope seekEnvelope) {
+                    sought.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    log.debug("The deliver stream was closed by the client.", t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    // clients may half-close after the seek request, so the blocks keep flowing until cancellation.
+                }
+            };
+        }
+    }
+
+    private record ProducedBlock(Block block, List<ChaincodeEvent> events) {
+    }
+}
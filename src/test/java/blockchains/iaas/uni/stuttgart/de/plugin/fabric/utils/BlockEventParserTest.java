@@ -0,0 +1,87 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockData;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+class BlockEventParserTest {
+
+    @Test
+    void keepsOnlyEventsOfValidEndorserTransactions() {
+        Block block = TestBlocks.newBlock(7, List.of(
+                TestBlocks.newTransaction(event("cc", "tx0")),
+                TestBlocks.newTransaction(HeaderType.CONFIG, event("cc", "tx1")),
+                TestBlocks.newTransaction(HeaderType.ENDORSER_TRANSACTION, null),
+                TestBlocks.newTransaction(event("other", "tx3")),
+                TestBlocks.newTransaction(TestBlocks.newEvent("cc", "tx4", "", "{}")),
+                TestBlocks.newTransaction(event("cc", "tx5"))));
+
+        List<ChaincodeEvent> events = BlockEventParser.getChaincodeEvents(block, Set.of("cc"));
+
+        Assertions.assertEquals(List.of("tx0", "tx5"), transactions(events));
+        ChaincodeEvent event = events.get(0);
+        Assertions.assertEquals(7, event.getBlockNumber());
+        Assertions.assertEquals("cc", event.getChaincodeName());
+        Assertions.assertEquals("Event", event.getEventName());
+        Assertions.assertEquals("{\"txId\": \"tx0\"}", new String(event.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsValidationCodesFromMetadata() {
+        List<Envelope> transactions = List.of(
+                TestBlocks.newTransaction(event("cc", "tx0")),
+                TestBlocks.newTransaction(event("cc", "tx1")),
+                TestBlocks.newTransaction(event("cc", "tx2")),
+                TestBlocks.newTransaction(event("cc", "tx3")));
+        byte[] validationCodes = {
+                (byte) TxValidationCode.MVCC_READ_CONFLICT_VALUE,
+                (byte) TxValidationCode.VALID_VALUE,
+                (byte) TxValidationCode.ENDORSEMENT_POLICY_FAILURE_VALUE,
+                (byte) TxValidationCode.VALID_VALUE
+        };
+
+        Assertions.assertEquals(List.of("tx1", "tx3"),
+                transactions(BlockEventParser.getChaincodeEvents(TestBlocks.newBlock(1, transactions, validationCodes), Set.of("cc"))));
+        // without a transactions filter, all transactions are considered valid.
+        Assertions.assertEquals(List.of("tx0", "tx1", "tx2", "tx3"),
+                transactions(BlockEventParser.getChaincodeEvents(TestBlocks.newBlock(1, transactions, null), Set.of("cc"))));
+    }
+
+    @Test
+    void skipsMalformedTransactions() {
+        Block valid = TestBlocks.newBlock(3, List.of(TestBlocks.newTransaction(event("cc", "tx1"))));
+        // an invalid wire type, which cannot be parsed as an envelope.
+        Block block = valid.toBuilder()
+                .setData(BlockData.newBuilder()
+                        .addData(ByteString.copyFrom(new byte[]{(byte) 0xff}))
+                        .addData(valid.getData().getData(0)))
+                .build();
+
+        Assertions.assertEquals(List.of("tx1"), transactions(BlockEventParser.getChaincodeEvents(block, Set.of("cc"))));
+    }
+
+    @Test
+    void noWatchedChaincodes() {
+        Block block = TestBlocks.newBlock(1, List.of(TestBlocks.newTransaction(event("cc", "tx0"))));
+
+        Assertions.assertTrue(BlockEventParser.getChaincodeEvents(block, Set.of()).isEmpty());
+    }
+
+    private static org.hyperledger.fabric.protos.peer.ChaincodeEvent event(String chaincode, String transactionId) {
+        return TestBlocks.newEvent(chaincode, transactionId, "Event", "{\"txId\": \"" + transactionId + "\"}");
+    }
+
+    private static List<String> transactions(List<ChaincodeEvent> events) {
+        return events.stream().map(ChaincodeEvent::getTransactionId).toList();
+    }
+}
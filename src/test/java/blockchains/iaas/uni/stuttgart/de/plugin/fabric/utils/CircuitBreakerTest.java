@@ -0,0 +1,140 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import blockchains.iaas.uni.stuttgart.de.api.exceptions.BlockchainNodeUnreachableException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CircuitBreakerTest {
+    private static final long OPEN_MILLIS = 50;
+
+    @Test
+    void opensAfterConsecutiveTransientFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("peer", 2, OPEN_MILLIS);
+
+        failTransiently(breaker);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        failTransiently(breaker);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.isCallPermitted());
+
+        AtomicInteger calls = new AtomicInteger();
+        Assertions.assertThrows(BlockchainNodeUnreachableException.class, () -> breaker.call(calls::incrementAndGet));
+        Assertions.assertEquals(0, calls.get());
+    }
+
+    @Test
+    void permanentFailuresDoNotOpen() {
+        CircuitBreaker breaker = new CircuitBreaker("peer", 2, OPEN_MILLIS);
+
+        failTransiently(breaker);
+        Assertions.assertThrows(StatusRuntimeException.class, () -> breaker.call(() -> {
+            throw new StatusRuntimeException(Status.INVALID_ARGUMENT);
+        }));
+        failTransiently(breaker);
+
+        // the permanent failure reset the count of consecutive failures.
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void successfulProbeCloses() throws Exception {
+        CircuitBreaker breaker = open();
+        Thread.sleep(OPEN_MILLIS + 20);
+        Assertions.assertTrue(breaker.isCallPermitted());
+
+        String result = breaker.call(() -> {
+            // only a single probe is let through while half-open.
+            Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+            Assertions.assertFalse(breaker.isCallPermitted());
+
+            return "ok";
+        });
+
+        Assertions.assertEquals("ok", result);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedProbeReopens() throws Exception {
+        CircuitBreaker breaker = open();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        failTransiently(breaker);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.isCallPermitted());
+    }
+
+    @Test
+    void cancelledProbeDoesNotClose() throws Exception {
+        CircuitBreaker breaker = open();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        // e.g., the primary call that lost to a hedge.
+        Assertions.assertThrows(StatusRuntimeException.class, () -> breaker.call(() -> {
+            throw new StatusRuntimeException(Status.CANCELLED);
+        }));
+
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // the probe was released, so the next call probes again.
+        Assertions.assertTrue(breaker.isCallPermitted());
+        failTransiently(breaker);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void cancelledCallsDoNotResetFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("peer", 2, OPEN_MILLIS);
+
+        failTransiently(breaker);
+        Assertions.assertThrows(StatusRuntimeException.class, () -> breaker.call(() -> {
+            throw new StatusRuntimeException(Status.CANCELLED);
+        }));
+        failTransiently(breaker);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void errorReleasesProbe() throws Exception {
+        CircuitBreaker breaker = open();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        Assertions.assertThrows(AssertionError.class, () -> breaker.call(() -> {
+            throw new AssertionError("probe failed with an error");
+        }));
+
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.isCallPermitted());
+        Assertions.assertEquals("ok", breaker.call(() -> "ok"));
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void forPeerIsKeyedByEndpointAndSettings() {
+        CircuitBreaker breaker = CircuitBreaker.forPeer("localhost:7051", 3, 1000);
+
+        Assertions.assertSame(breaker, CircuitBreaker.forPeer("localhost:7051", 3, 1000));
+        Assertions.assertNotSame(breaker, CircuitBreaker.forPeer("localhost:7051", 4, 1000));
+        Assertions.assertNotSame(breaker, CircuitBreaker.forPeer("localhost:9051", 3, 1000));
+        Assertions.assertEquals("localhost:7051", breaker.getPeer());
+    }
+
+    private static CircuitBreaker open() {
+        CircuitBreaker breaker = new CircuitBreaker("peer", 1, OPEN_MILLIS);
+        failTransiently(breaker);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        return breaker;
+    }
+
+    private static void failTransiently(CircuitBreaker breaker) {
+        Assertions.assertThrows(StatusRuntimeException.class, () -> breaker.call(() -> {
+            throw new StatusRuntimeException(Status.UNAVAILABLE);
+        }));
+    }
+}
@@ -0,0 +1,103 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class ConnectivityMonitorTest {
+    private Server server;
+    private ManagedChannel channel;
+    private ConnectivityMonitor monitor;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        // the server has no services, so the health check is answered with UNIMPLEMENTED.
+        server = InProcessServerBuilder.forName(name).directExecutor().build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        if (monitor != null) {
+            monitor.close();
+        }
+
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void settlesWhenConnected() throws InterruptedException {
+        monitor = new ConnectivityMonitor(channel, 0);
+
+        Assertions.assertEquals(ConnectivityState.READY, monitor.awaitSettledState(5000));
+        Assertions.assertTrue(monitor.isReady());
+    }
+
+    @Test
+    void settlesWhenUnreachable() throws InterruptedException {
+        ManagedChannel unreachable = InProcessChannelBuilder.forName(InProcessServerBuilder.generateName()).directExecutor().build();
+
+        try {
+            monitor = new ConnectivityMonitor(unreachable, 0);
+
+            Assertions.assertEquals(ConnectivityState.TRANSIENT_FAILURE, monitor.awaitSettledState(5000));
+            Assertions.assertFalse(monitor.isReady());
+        } finally {
+            unreachable.shutdownNow();
+        }
+    }
+
+    @Test
+    void idleChannelReconnectsWhenAwaited() throws InterruptedException {
+        monitor = new ConnectivityMonitor(channel, 0);
+        Assertions.assertEquals(ConnectivityState.READY, monitor.awaitSettledState(5000));
+
+        channel.enterIdle();
+        awaitCondition(() -> monitor.getState() == ConnectivityState.IDLE);
+
+        Assertions.assertEquals(ConnectivityState.READY, monitor.awaitSettledState(5000));
+    }
+
+    @Test
+    void idleChannelReconnectsWhenChecked() throws InterruptedException {
+        monitor = new ConnectivityMonitor(channel, 0);
+        Assertions.assertEquals(ConnectivityState.READY, monitor.awaitSettledState(5000));
+
+        channel.enterIdle();
+        awaitCondition(() -> monitor.getState() == ConnectivityState.IDLE);
+
+        // no ping reached the peer, so the idle channel is not considered ready, but it is asked to reconnect.
+        Assertions.assertFalse(monitor.isReady());
+        awaitCondition(monitor::isReady);
+        Assertions.assertEquals(ConnectivityState.READY, monitor.getState());
+    }
+
+    @Test
+    void pingMeasuresRoundTrip() throws InterruptedException {
+        monitor = new ConnectivityMonitor(channel, 10);
+
+        awaitCondition(() -> monitor.getLastRttMillis() >= 0);
+        Assertions.assertTrue(monitor.isLastPingSucceeded());
+        Assertions.assertTrue(monitor.getLastPingMillis() > 0);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class HedgedEvaluatorTest {
+    private HedgedEvaluator evaluator;
+
+    @AfterEach
+    void close() {
+        if (evaluator != null) {
+            evaluator.close();
+        }
+    }
+
+    @Test
+    void delayFollowsLatencyPercentile() {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().delayPercentile(0.95).minDelayMillis(5).maxDelayMillis(1000).build());
+
+        for (int i = 1; i < 64; i++) {
+            evaluator.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        // the delay is only recomputed once enough latencies are observed.
+        Assertions.assertEquals(5, evaluator.getMetrics().getCurrentDelayMillis());
+
+        evaluator.recordLatency(TimeUnit.MILLISECONDS.toNanos(64));
+
+        // the 61st of 64 sorted latencies.
+        Assertions.assertEquals(61, evaluator.getMetrics().getCurrentDelayMillis());
+    }
+
+    @Test
+    void delayIsBounded() {
+        HedgedEvaluator low = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(20).maxDelayMillis(50).build());
+        HedgedEvaluator high = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(20).maxDelayMillis(50).build());
+
+        try {
+            for (int i = 0; i < 64; i++) {
+                low.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+                high.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+            }
+
+            Assertions.assertEquals(20, low.getMetrics().getCurrentDelayMillis());
+            Assertions.assertEquals(50, high.getMetrics().getCurrentDelayMillis());
+        } finally {
+            low.close();
+            high.close();
+        }
+    }
+
+    @Test
+    void budgetCapsHedges() throws Exception {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(1).budgetRatio(0).build());
+
+        for (int i = 0; i < 15; i++) {
+            Assertions.assertEquals("primary", evaluate(sleeping("primary", 30), () -> failing()));
+        }
+
+        // the budget starts with 10 tokens and is not refilled with a ratio of 0.
+        HedgingMetrics metrics = evaluator.getMetrics();
+        Assertions.assertEquals(15, metrics.getEvaluations());
+        Assertions.assertEquals(10, metrics.getHedgesFired());
+        Assertions.assertEquals(5, metrics.getHedgesDeniedByBudget());
+        Assertions.assertEquals(0, metrics.getHedgesWon());
+    }
+
+    @Test
+    void noHedgeForFastPrimary() throws Exception {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(1000).build());
+
+        Assertions.assertEquals("primary", evaluate(() -> bytes("primary"), () -> {
+            throw new AssertionError("no hedge expected");
+        }));
+        Assertions.assertEquals(0, evaluator.getMetrics().getHedgesFired());
+    }
+
+    @Test
+    void firstSuccessWins() throws Exception {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(10).build());
+
+        Assertions.assertEquals("hedge", evaluate(sleeping("primary", 500), () -> () -> bytes("hedge")));
+        Assertions.assertEquals(1, evaluator.getMetrics().getHedgesWon());
+
+        // a failed hedge does not win over a slow but successful primary.
+        Assertions.assertEquals("primary", evaluate(sleeping("primary", 50), () -> failing()));
+        Assertions.assertEquals(1, evaluator.getMetrics().getHedgesWon());
+        Assertions.assertEquals(2, evaluator.getMetrics().getHedgesFired());
+    }
+
+    @Test
+    void bothFailing() {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(10).build());
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> evaluate(() -> {
+            Thread.sleep(50);
+            throw new IllegalStateException("primary failed");
+        }, () -> failing()));
+        Assertions.assertTrue(e.getMessage().endsWith("failed"));
+    }
+
+    @Test
+    void loserIsCancelled() throws Exception {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(10).build());
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        String result = evaluate(() -> {
+            Context.current().addListener(context -> cancelled.countDown(), Runnable::run);
+            // blocks like a hung peer until the call is cancelled.
+            cancelled.await(10, TimeUnit.SECONDS);
+
+            return bytes("primary");
+        }, () -> () -> bytes("hedge"));
+
+        Assertions.assertEquals("hedge", result);
+        Assertions.assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closeLetsEvaluationsInFlightFinish() throws Exception {
+        evaluator = new HedgedEvaluator(HedgingPolicy.builder().minDelayMillis(1000).build());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return evaluate(() -> {
+                    started.countDown();
+                    release.await();
+
+                    return bytes("primary");
+                }, () -> failing());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        evaluator.close();
+        release.countDown();
+
+        Assertions.assertEquals("primary", inFlight.get(5, TimeUnit.SECONDS));
+        // evaluations of callers that still hold the closed evaluator run without hedging.
+        Assertions.assertEquals("late", evaluate(() -> bytes("late"), () -> {
+            throw new AssertionError("no hedge expected");
+        }));
+    }
+
+    private String evaluate(Callable<byte[]> primary, Supplier<Callable<byte[]>> hedge) throws Exception {
+        return new String(evaluator.evaluate(primary, hedge, "Test"), StandardCharsets.UTF_8);
+    }
+
+    private static Callable<byte[]> sleeping(String result, long millis) {
+        return () -> {
+            Thread.sleep(millis);
+
+            return bytes(result);
+        };
+    }
+
+    private static Callable<byte[]> failing() {
+        return () -> {
+            throw new IllegalStateException("hedge failed");
+        };
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
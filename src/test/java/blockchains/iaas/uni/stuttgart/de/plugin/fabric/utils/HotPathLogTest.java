@@ -0,0 +1,103 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class HotPathLogTest {
+
+    @Test
+    void permitWithinWindow() {
+        HotPathLog log = new HotPathLog(2, 0);
+
+        Assertions.assertEquals(0, log.permit("key", 1_000));
+        Assertions.assertEquals(0, log.permit("key", 1_500));
+        Assertions.assertEquals(-1, log.permit("key", 1_999));
+        Assertions.assertEquals(-1, log.permit("key", 1_999));
+    }
+
+    @Test
+    void permitReportsSuppressedRecordsAfterRollover() {
+        HotPathLog log = new HotPathLog(1, 0);
+
+        Assertions.assertEquals(0, log.permit("key", 1_000));
+        Assertions.assertEquals(-1, log.permit("key", 1_100));
+        Assertions.assertEquals(-1, log.permit("key", 1_200));
+        Assertions.assertEquals(-1, log.permit("key", 1_300));
+        // the first record of the next second reports the suppressed ones, and resets the count.
+        Assertions.assertEquals(3, log.permit("key", 2_000));
+        Assertions.assertEquals(-1, log.permit("key", 2_100));
+        Assertions.assertEquals(1, log.permit("key", 5_000));
+        Assertions.assertEquals(0, log.permit("key", 6_000));
+    }
+
+    @Test
+    void permitPerKey() {
+        HotPathLog log = new HotPathLog(1, 0);
+
+        Assertions.assertEquals(0, log.permit("a", 1_000));
+        Assertions.assertEquals(-1, log.permit("a", 1_000));
+        Assertions.assertEquals(0, log.permit("b", 1_000));
+    }
+
+    @Test
+    void permitWithoutLimit() {
+        HotPathLog log = new HotPathLog(0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(0, log.permit("key", 1_000));
+        }
+    }
+
+    @Test
+    void truncate() {
+        HotPathLog log = new HotPathLog(10, 4);
+
+        Assertions.assertNull(log.truncate(null));
+        Assertions.assertEquals("abcd", log.truncate("abcd"));
+        Assertions.assertEquals("abcd...(6 chars)", log.truncate("abcdef"));
+        Assertions.assertEquals("abcdef", new HotPathLog(10, 0).truncate("abcdef"));
+    }
+
+    @Test
+    void describe() {
+        HotPathLog log = new HotPathLog(10, 4);
+
+        Assertions.assertEquals("cc/Event (block: 7, tx: tx1, payload: {})", log.describe(event("{}")));
+        Assertions.assertEquals("cc/Event (block: 7, tx: tx1, payload: {\"a\"...(10 bytes))",
+                log.describe(event("{\"a\": \"b\"}")));
+        Assertions.assertEquals("cc/Event (block: 7, tx: tx1, payload: {\"a\": \"b\"})",
+                new HotPathLog(10, 0).describe(event("{\"a\": \"b\"}")));
+    }
+
+    private static ChaincodeEvent event(String payload) {
+        return new ChaincodeEvent() {
+            @Override
+            public long getBlockNumber() {
+                return 7;
+            }
+
+            @Override
+            public String getTransactionId() {
+                return "tx1";
+            }
+
+            @Override
+            public String getChaincodeName() {
+                return "cc";
+            }
+
+            @Override
+            public String getEventName() {
+                return "Event";
+            }
+
+            @Override
+            public byte[] getPayload() {
+                return payload.getBytes(StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParameterSchemaTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{ \"type\": \"string\", \"contentEncoding\": \"base64\" }",
+            "{ \"type\": \"string\", \"contentEncoding\": \"BASE64\" }",
+            "{ \"type\": \"string\", \"format\": \"byte\" }",
+            "{ \"type\": \"bytes\" }"
+    })
+    void binarySchemas(String type) {
+        ParameterSchema schema = ParameterSchema.of(type);
+
+        Assertions.assertTrue(schema.isBinary());
+        Assertions.assertFalse(schema.isTransientData());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{ \"type\": \"string\" }",
+            "{ \"type\": \"integer\", \"format\": \"byte\" }",
+            "{ \"type\": \"string\", \"contentEncoding\": \"base32\" }",
+            "{ \"type\": { \"name\": \"bytes\" } }",
+            "[\"bytes\"]",
+            "not json {",
+            ""
+    })
+    void textSchemas(String type) {
+        ParameterSchema schema = ParameterSchema.of(type);
+
+        Assertions.assertFalse(schema.isBinary());
+        Assertions.assertFalse(schema.isTransientData());
+    }
+
+    @Test
+    void nullSchemaIsText() {
+        Assertions.assertFalse(ParameterSchema.of(null).isBinary());
+    }
+
+    @Test
+    void transientSchemas() {
+        Assertions.assertTrue(ParameterSchema.of("{ \"type\": \"string\", \"transient\": true }").isTransientData());
+        Assertions.assertFalse(ParameterSchema.of("{ \"type\": \"string\", \"transient\": true }").isBinary());
+        Assertions.assertFalse(ParameterSchema.of("{ \"type\": \"string\", \"transient\": false }").isTransientData());
+        Assertions.assertFalse(ParameterSchema.of("{ \"type\": \"string\", \"transient\": {} }").isTransientData());
+
+        ParameterSchema binaryTransient = ParameterSchema.of("{ \"type\": \"bytes\", \"transient\": true }");
+        Assertions.assertTrue(binaryTransient.isBinary());
+        Assertions.assertTrue(binaryTransient.isTransientData());
+    }
+
+    @Test
+    void schemasAreCached() {
+        String type = "{ \"type\": \"bytes\", \"description\": \"cached\" }";
+
+        Assertions.assertSame(ParameterSchema.of(type), ParameterSchema.of(type));
+        // schemas that cannot be parsed are cached as text as well.
+        Assertions.assertSame(ParameterSchema.of("not json {"), ParameterSchema.of("{ \"type\": \"string\" ,"));
+    }
+}
@@ -0,0 +1,144 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class RecentEventBufferTest {
+
+    @Test
+    void evictsOldestEvents() {
+        RecentEventBuffer buffer = new RecentEventBuffer(3, 10);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.add(event(10 + i, "tx" + i));
+        }
+
+        Assertions.assertEquals(5, buffer.getAddedCount());
+        Assertions.assertEquals(2, buffer.getOldestPosition());
+        // the event of block 11 was evicted last.
+        Assertions.assertEquals(12, buffer.getCompleteSinceBlock());
+        Assertions.assertEquals(List.of("tx2", "tx3", "tx4"), transactions(buffer.getFrom(0, 10)));
+        Assertions.assertEquals(List.of("tx3"), transactions(buffer.getFrom(3, 1)));
+        Assertions.assertTrue(buffer.getFrom(5, 10).isEmpty());
+    }
+
+    @Test
+    void getFromBeforeWrapping() {
+        RecentEventBuffer buffer = new RecentEventBuffer(4, 0);
+        buffer.add(event(0, "tx0"));
+        buffer.add(event(1, "tx1"));
+
+        Assertions.assertEquals(0, buffer.getOldestPosition());
+        Assertions.assertEquals(List.of("tx0", "tx1"), transactions(buffer.getFrom(0, 10)));
+        Assertions.assertEquals(List.of("tx1"), transactions(buffer.getFrom(1, 10)));
+    }
+
+    @Test
+    void getAllReceivedBetween() throws InterruptedException {
+        long beforeStart = System.currentTimeMillis() - 1;
+        RecentEventBuffer buffer = new RecentEventBuffer(2, 100);
+        long start = buffer.getCompleteSinceMillis();
+        buffer.add(event(100, "tx0"));
+        Thread.sleep(20);
+        long between = System.currentTimeMillis();
+        Thread.sleep(20);
+        buffer.add(event(101, "tx1"));
+
+        // events before the buffer was started are not known.
+        Assertions.assertNull(buffer.getAllReceivedBetween(beforeStart, Long.MAX_VALUE));
+        Assertions.assertEquals(List.of("tx0", "tx1"), transactions(buffer.getAllReceivedBetween(start, Long.MAX_VALUE)));
+        Assertions.assertEquals(List.of("tx0"), transactions(buffer.getAllReceivedBetween(start, between)));
+
+        Thread.sleep(20);
+        buffer.add(event(102, "tx2"));
+
+        // tx0 was evicted.
+        Assertions.assertNull(buffer.getAllReceivedBetween(start, Long.MAX_VALUE));
+        Assertions.assertEquals(List.of("tx1", "tx2"), transactions(buffer.getAllReceivedBetween(between, Long.MAX_VALUE)));
+        Assertions.assertEquals(101, buffer.getCompleteSinceBlock());
+    }
+
+    @Test
+    void getLastBlocks() {
+        RecentEventBuffer buffer = new RecentEventBuffer(4, 0);
+
+        Assertions.assertTrue(buffer.getLastBlocks(2).isEmpty());
+
+        buffer.add(event(1, "tx0"));
+        buffer.add(event(2, "tx1"));
+        buffer.add(event(2, "tx2"));
+        buffer.add(event(4, "tx3"));
+        buffer.add(event(5, "tx4"));
+
+        Assertions.assertEquals(List.of("tx4"), transactions(buffer.getLastBlocks(1)));
+        // block 3 has no events.
+        Assertions.assertEquals(List.of("tx3", "tx4"), transactions(buffer.getLastBlocks(3)));
+        Assertions.assertEquals(List.of("tx1", "tx2", "tx3", "tx4"), transactions(buffer.getLastBlocks(4)));
+        Assertions.assertEquals(List.of("tx1", "tx2", "tx3", "tx4"), transactions(buffer.getLastBlocks(100)));
+        Assertions.assertTrue(buffer.getLastBlocks(0).isEmpty());
+    }
+
+    @Test
+    void getReceivedBetween() throws InterruptedException {
+        RecentEventBuffer buffer = new RecentEventBuffer(4, 0);
+        buffer.add(event(0, "tx0"));
+        Thread.sleep(20);
+        long between = System.currentTimeMillis();
+        Thread.sleep(20);
+        buffer.add(event(1, "tx1"));
+        long after = System.currentTimeMillis();
+
+        Assertions.assertEquals(List.of("tx0", "tx1"), transactions(buffer.getReceivedBetween(0, Long.MAX_VALUE)));
+        Assertions.assertEquals(List.of("tx0"), transactions(buffer.getReceivedBetween(0, between)));
+        Assertions.assertEquals(List.of("tx1"), transactions(buffer.getReceivedBetween(between, Long.MAX_VALUE)));
+        Assertions.assertTrue(buffer.getReceivedBetween(after + 1, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void selectReplay() {
+        RecentEventBuffer buffer = new RecentEventBuffer(4, 0);
+        buffer.add(event(0, "tx0"));
+        buffer.add(event(1, "tx1"));
+
+        Assertions.assertEquals(List.of("tx1"), transactions(buffer.select(EventReplay.lastBlocks(1))));
+        Assertions.assertEquals(List.of("tx0", "tx1"), transactions(buffer.select(EventReplay.lastMillis(60_000))));
+        Assertions.assertTrue(buffer.select(EventReplay.builder().build()).isEmpty());
+    }
+
+    private static List<String> transactions(List<ChaincodeEvent> events) {
+        return events.stream().map(ChaincodeEvent::getTransactionId).toList();
+    }
+
+    private static ChaincodeEvent event(long blockNumber, String transactionId) {
+        return new ChaincodeEvent() {
+            @Override
+            public long getBlockNumber() {
+                return blockNumber;
+            }
+
+            @Override
+            public String getTransactionId() {
+                return transactionId;
+            }
+
+            @Override
+            public String getChaincodeName() {
+                return "cc";
+            }
+
+            @Override
+            public String getEventName() {
+                return "Event";
+            }
+
+            @Override
+            public byte[] getPayload() {
+                return "{}".getBytes(StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RetryPolicyTest {
+
+    @Test
+    void backoffStaysWithinJitterBounds() {
+        RetryPolicy policy = RetryPolicy.builder().initialBackoffMillis(100).maxBackoffMillis(1000).backoffMultiplier(2.0).build();
+
+        for (int i = 0; i < 1000; i++) {
+            long first = policy.getBackoffMillis(1);
+            long third = policy.getBackoffMillis(3);
+            long tenth = policy.getBackoffMillis(10);
+            Assertions.assertTrue(first >= 0 && first <= 100, "attempt 1: " + first);
+            Assertions.assertTrue(third >= 0 && third <= 400, "attempt 3: " + third);
+            Assertions.assertTrue(tenth >= 0 && tenth <= 1000, "attempt 10: " + tenth);
+        }
+    }
+
+    @Test
+    void backoffIsJittered() {
+        RetryPolicy policy = RetryPolicy.builder().initialBackoffMillis(1000).maxBackoffMillis(1000).build();
+        long first = policy.getBackoffMillis(1);
+        boolean differs = false;
+
+        for (int i = 0; i < 100 && !differs; i++) {
+            differs = policy.getBackoffMillis(1) != first;
+        }
+
+        Assertions.assertTrue(differs);
+    }
+
+    @Test
+    void isTransient() {
+        Assertions.assertTrue(RetryPolicy.isTransient(new StatusRuntimeException(Status.UNAVAILABLE)));
+        Assertions.assertTrue(RetryPolicy.isTransient(new StatusRuntimeException(Status.DEADLINE_EXCEEDED)));
+        Assertions.assertTrue(RetryPolicy.isTransient(new StatusRuntimeException(Status.RESOURCE_EXHAUSTED)));
+        Assertions.assertTrue(RetryPolicy.isTransient(new IllegalStateException(new StatusRuntimeException(Status.UNAVAILABLE))));
+        Assertions.assertFalse(RetryPolicy.isTransient(new StatusRuntimeException(Status.INVALID_ARGUMENT)));
+        Assertions.assertFalse(RetryPolicy.isTransient(new StatusRuntimeException(Status.CANCELLED)));
+        Assertions.assertFalse(RetryPolicy.isTransient(new IllegalStateException("not a gRPC failure")));
+        Assertions.assertFalse(RetryPolicy.isTransient(null));
+    }
+
+    @Test
+    void executeRetriesTransientFailures() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(3).initialBackoffMillis(1).build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = policy.execute(new CircuitBreaker("peer", 100, 1000), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new StatusRuntimeException(Status.UNAVAILABLE);
+            }
+
+            return "ok";
+        });
+
+        Assertions.assertEquals("ok", result);
+        Assertions.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void executeGivesUpAfterMaxAttempts() {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(2).initialBackoffMillis(1).build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(StatusRuntimeException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new StatusRuntimeException(Status.UNAVAILABLE);
+        }));
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void executeDoesNotRetryPermanentFailures() {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(3).initialBackoffMillis(1).build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(StatusRuntimeException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new StatusRuntimeException(Status.PERMISSION_DENIED);
+        }));
+        Assertions.assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,109 @@
+package blockchains.iaas.uni.stuttgart.de.plugin.fabric.utils;
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockData;
+import org.hyperledger.fabric.protos.common.BlockHeader;
+import org.hyperledger.fabric.protos.common.BlockMetadata;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ChaincodeEndorsedAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds blocks the way a peer delivers them, for the stand-in peer of the benchmarks and for tests.
+ */
+public class TestBlocks {
+    private TestBlocks() {
+    }
+
+    public static ChaincodeEvent newEvent(String chaincode, String transactionId, String eventName, String payload) {
+        return ChaincodeEvent.newBuilder()
+                .setChaincodeId(chaincode)
+                .setTxId(transactionId)
+                .setEventName(eventName)
+                .setPayload(ByteString.copyFromUtf8(payload))
+                .build();
+    }
+
+    /**
+     * @return an endorser transaction whose single action emits the event.
+     */
+    public static Envelope newTransaction(ChaincodeEvent event) {
+        return newTransaction(HeaderType.ENDORSER_TRANSACTION, event);
+    }
+
+    /**
+     * @param type  the type of the channel header.
+     * @param event the event of the single action, or null for an action without an event.
+     */
+    public static Envelope newTransaction(HeaderType type, ChaincodeEvent event) {
+        ChaincodeAction action = event != null ?
+                ChaincodeAction.newBuilder().setEvents(event.toByteString()).build() :
+                ChaincodeAction.getDefaultInstance();
+        ProposalResponsePayload responsePayload = ProposalResponsePayload.newBuilder().setExtension(action.toByteString()).build();
+        ChaincodeActionPayload actionPayload = ChaincodeActionPayload.newBuilder()
+                .setAction(ChaincodeEndorsedAction.newBuilder().setProposalResponsePayload(responsePayload.toByteString()))
+                .build();
+        Transaction transaction = Transaction.newBuilder()
+                .addActions(TransactionAction.newBuilder().setPayload(actionPayload.toByteString()))
+                .build();
+        ChannelHeader channelHeader = ChannelHeader.newBuilder()
+                .setType(type.getNumber())
+                .setTxId(event != null ? event.getTxId() : "")
+                .build();
+        Payload payload = Payload.newBuilder()
+                .setHeader(Header.newBuilder().setChannelHeader(channelHeader.toByteString()))
+                .setData(transaction.toByteString())
+                .build();
+
+        return Envelope.newBuilder().setPayload(payload.toByteString()).build();
+    }
+
+    /**
+     * @return a block in which all transactions are valid.
+     */
+    public static Block newBlock(long number, List<Envelope> transactions) {
+        byte[] validationCodes = new byte[transactions.size()];
+        Arrays.fill(validationCodes, (byte) TxValidationCode.VALID_VALUE);
+
+        return newBlock(number, transactions, validationCodes);
+    }
+
+    /**
+     * @param validationCodes the validation code of each transaction, stored in the transactions filter of the block
+     *                        metadata, or null for a block without metadata.
+     */
+    public static Block newBlock(long number, List<Envelope> transactions, byte[] validationCodes) {
+        BlockData.Builder data = BlockData.newBuilder();
+        transactions.forEach(transaction -> data.addData(transaction.toByteString()));
+        BlockMetadata.Builder metadata = BlockMetadata.newBuilder();
+
+        if (validationCodes != null) {
+            for (int i = 0; i <= BlockMetadataIndex.COMMIT_HASH_VALUE; i++) {
+                metadata.addMetadata(i == BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE ?
+                        ByteString.copyFrom(validationCodes) :
+                        ByteString.EMPTY);
+            }
+        }
+
+        return Block.newBuilder()
+                .setHeader(BlockHeader.newBuilder().setNumber(number))
+                .setData(data)
+                .setMetadata(metadata)
+                .build();
+    }
+}